@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 缓存测试控制器
@@ -25,6 +26,16 @@ public class CacheController {
     @Autowired
     private CacheService cacheService;
     
+    /**
+     * 批量查询单次最多的用户名数量
+     */
+    private static final int MAX_BATCH_SIZE = 1000;
+    
+    /**
+     * 按前缀列出或抽样缓存key时单次最多的数量
+     */
+    private static final int MAX_SCAN_SIZE = 1000;
+    
     /**
      * 🎯 示例1：根据用户名查询用户（使用三重缓存）
      * 第一次查询：内存❌ -> Redis❌ -> MySQL✅
@@ -43,6 +54,32 @@ public class CacheController {
         return Result.success(user);
     }
     
+    /**
+     * 🎯 根据用户名异步查询用户（使用三重缓存）
+     * 返回CompletableFuture，Servlet线程在等待Redis和MySQL期间被释放
+     */
+    @GetMapping("/user/byUsername/async")
+    @ApiOperation(value = "根据用户名异步查询用户（三重缓存）")
+    public CompletableFuture<Result> getUserByUsernameAsync(@RequestParam String username) {
+        log.info("【Controller】接收请求：异步查询用户，username={}", username);
+        return cacheService.getUserByUsernameAsync(username)
+            .thenApply(user -> user == null ? Result.fail("用户不存在") : Result.success(user));
+    }
+    
+    /**
+     * 🎯 批量根据用户名查询用户（使用三重缓存）
+     * 内存批量命中 -> Redis MGET -> 剩余用户名一次IN查询，结果按传入顺序返回
+     */
+    @PostMapping("/user/batch")
+    @ApiOperation(value = "批量根据用户名查询用户（三重缓存）")
+    public Result getUsersByUsernames(@RequestBody List<String> usernames) {
+        log.info("【Controller】接收请求：批量查询用户，数量={}", usernames.size());
+        if (usernames.size() > MAX_BATCH_SIZE) {
+            return Result.fail("单次最多查询" + MAX_BATCH_SIZE + "个用户");
+        }
+        return Result.success(cacheService.getUsersByUsernames(usernames));
+    }
+    
     /**
      * 🎯 示例2：查询所有用户（使用三重缓存）
      * 缓存key固定为 "allUsers"
@@ -82,6 +119,20 @@ public class CacheController {
         return Result.success("缓存已清空");
     }
     
+    /**
+     * 🔄 从MySQL重新加载指定用户并写入缓存
+     */
+    @PutMapping("/user/refresh")
+    @ApiOperation(value = "根据username从MySQL重新加载用户缓存")
+    public Result refreshUserCache(@RequestParam String username) {
+        log.info("【Controller】接收请求：刷新用户缓存，username={}", username);
+        User user = cacheService.refreshUserCache(username);
+        if (user == null) {
+            return Result.fail("用户不存在");
+        }
+        return Result.success(user);
+    }
+    
     /**
      * 🔄 示例5：清空所有用户列表缓存
      */
@@ -93,6 +144,49 @@ public class CacheController {
         return Result.success("所有用户列表缓存已清空");
     }
     
+    /**
+     * 🔍 按前缀分页列出缓存key（SCAN游标，首页传0，返回的cursor为0时遍历结束）
+     */
+    @GetMapping("/admin/keys")
+    @ApiOperation(value = "按前缀分页列出缓存key")
+    public Result scanCacheKeys(@RequestParam String prefix,
+                                @RequestParam(defaultValue = "0") String cursor,
+                                @RequestParam(defaultValue = "100") int count) {
+        log.info("【Controller】接收请求：按前缀列出缓存key，prefix={}, cursor={}", prefix, cursor);
+        if (count < 1 || count > MAX_SCAN_SIZE) {
+            return Result.fail("count须在1到" + MAX_SCAN_SIZE + "之间");
+        }
+        return Result.success(cacheService.scanCacheKeys(prefix, cursor, count));
+    }
+    
+    /**
+     * 🔍 按前缀抽样缓存key的剩余过期时间和内存占用
+     */
+    @GetMapping("/admin/keys/sample")
+    @ApiOperation(value = "按前缀抽样缓存key的过期时间和大小")
+    public Result sampleCacheKeys(@RequestParam String prefix,
+                                  @RequestParam(defaultValue = "100") int limit) {
+        log.info("【Controller】接收请求：按前缀抽样缓存key，prefix={}, limit={}", prefix, limit);
+        if (limit < 1 || limit > MAX_SCAN_SIZE) {
+            return Result.fail("limit须在1到" + MAX_SCAN_SIZE + "之间");
+        }
+        return Result.success(cacheService.sampleCacheKeys(prefix, limit));
+    }
+    
+    /**
+     * 🔄 按前缀批量失效缓存（如 user: 清空所有用户缓存），所有节点的内存缓存一并删除
+     */
+    @DeleteMapping("/admin/keys")
+    @ApiOperation(value = "按前缀批量失效缓存")
+    public Result invalidateCachePrefix(@RequestParam String prefix) {
+        log.info("【Controller】接收请求：按前缀批量失效缓存，prefix={}", prefix);
+        Map<String, Object> result = cacheService.invalidateCachePrefix(prefix);
+        if (result == null) {
+            return Result.fail("已有批量失效在执行，请稍后再试");
+        }
+        return Result.success(result);
+    }
+    
     /**
      * 📊 示例6：获取缓存统计信息
      */
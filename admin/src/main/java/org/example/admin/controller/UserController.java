@@ -15,7 +15,6 @@ import org.example.common.util.RSAUtil;
 import org.example.framework.util.RedisLockUtil;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
@@ -38,9 +37,6 @@ public class UserController {
     @Autowired
     private RSAUtil rsaUtil;
 
-    @Autowired
-    private RedisTemplate redisTemplate;
-
     @Autowired
     private RedisLockUtil redisLockUtil;
 
@@ -147,17 +143,9 @@ public class UserController {
             // 获取锁成功，开始更新用户信息
             log.info("【分布式锁】获取锁成功，开始更新用户{}的信息", username);
 
-            // 1. 更新数据库
+            // 更新数据库，缓存由 @MultiLevelCacheEvict 在更新成功后删除（含延时双删）
             userService.updateUserMessage(userMessageUpdateDTO);
             
-            // 2. 重新查询更新后的完整用户信息（已加密）
-            User updatedUser = userService.SelectByUsername(username);
-            
-            // 3. 同步更新Redis缓存（无论是否存在，都会更新或添加）
-            String cacheKey = "user:" + username;
-            redisTemplate.opsForValue().set(cacheKey, updatedUser, 1800, java.util.concurrent.TimeUnit.SECONDS);
-            log.info("【缓存更新】已更新Redis缓存: key={}, 过期时间=30分钟", cacheKey);
-            
             log.info("更新用户信息成功: {}", username);
             return Result.success();
             
@@ -0,0 +1,31 @@
+package org.example.common.annotation;
+
+/**
+ * 多级缓存命中时返回值的拷贝策略
+ * 配合 {@link MultiLevelCache#copyStrategy()} 使用
+ */
+public enum CopyStrategy {
+
+    /**
+     * JSON序列化再反序列化的深拷贝（默认，最安全也最慢）
+     */
+    JSON,
+
+    /**
+     * 不拷贝，直接返回缓存中的对象
+     * 仅适用于调用方不会修改返回值的场景（只读、不可变对象）
+     */
+    NONE,
+
+    /**
+     * 内存缓存中保存预先序列化好的字节，命中时反序列化出新对象
+     * 省掉每次命中的序列化开销，只剩一次反序列化
+     */
+    SERIALIZED,
+
+    /**
+     * 按字段逐个拷贝的深拷贝，每个类的构造器和字段只反射解析一次
+     * 要求缓存对象有无参构造器，不满足时自动退回JSON深拷贝
+     */
+    FIELD_CLONE
+}
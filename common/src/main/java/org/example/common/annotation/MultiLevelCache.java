@@ -8,6 +8,7 @@ import java.lang.annotation.Target;
 /**
  * 多级缓存注解
  * 用于标记需要使用三重缓存查询的方法（内存 -> Redis -> MySQL）
+ * 方法返回 CompletableFuture 时缓存的是其结果：Redis使用异步命令，回源和回写都不阻塞调用线程
  */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
@@ -38,4 +39,87 @@ public @interface MultiLevelCache {
      * 是否使用Redis缓存，默认true
      */
     boolean useRedis() default true;
+    
+    /**
+     * 是否开启单飞（请求合并），默认false
+     * 开启后同一个key缓存未命中时只有一个线程查询数据库，其余线程等待该结果
+     */
+    boolean singleFlight() default false;
+    
+    /**
+     * 单飞等待超时时间（毫秒），默认3秒
+     * 超时后等待者自行查询数据库
+     */
+    long singleFlightTimeout() default 3000;
+    
+    /**
+     * 是否开启跨节点加载租约，默认false（需要useRedis=true）
+     * 开启后多个节点同时未命中时，只有抢到Redis租约的节点查询数据库并写入Redis，
+     * 其余节点轮询Redis等待新值；租约持有者宕机或等待超时则降级为本地查询
+     */
+    boolean distributedLoad() default false;
+    
+    /**
+     * 加载租约的过期时间（秒），默认10秒，应大于一次数据库查询的耗时
+     */
+    long loadLeaseTime() default 10;
+    
+    /**
+     * 未抢到租约的节点等待Redis新值的最长时间（毫秒），默认2秒
+     */
+    long loadLeaseWaitTimeout() default 2000;
+    
+    /**
+     * 是否缓存空结果（防止缓存穿透），默认false
+     * 开启后MySQL查询为null时在内存和Redis中写入空值标记，过期时间为nullExpireTime
+     */
+    boolean cacheNull() default false;
+    
+    /**
+     * 空值标记的过期时间（秒），默认60秒
+     */
+    long nullExpireTime() default 60;
+    
+    /**
+     * 布隆过滤器名称，默认不使用
+     * 指定后缓存未命中时先用key（不含前缀）查询布隆过滤器，一定不存在的直接返回null，不查询数据库
+     */
+    String bloomFilter() default "";
+    
+    /**
+     * 缓存命中时返回值的拷贝策略，默认JSON深拷贝
+     * 热点只读数据可以改为SERIALIZED、FIELD_CLONE或NONE以降低命中开销
+     */
+    CopyStrategy copyStrategy() default CopyStrategy.JSON;
+    
+    /**
+     * 提前刷新时间（秒），默认0表示不开启
+     * 缓存写入超过该时间后，命中时仍立即返回旧值，同时在后台异步重新查询一次
+     */
+    long refreshAfter() default 0;
+    
+    /**
+     * 过期后允许返回旧值的时间（秒），默认0
+     * 缓存实际保留 expireTime + staleTtl 秒，超过expireTime的命中返回旧值并触发异步刷新
+     */
+    long staleTtl() default 0;
+    
+    /**
+     * 过期时间随机抖动上限（占过期时间的百分比），默认0不抖动
+     * 每次写缓存时在过期时间上随机增加 0 ~ expireTime*jitterPercent/100 秒，内存和Redis使用同一个值，
+     * 防止同一批写入的缓存在同一秒集中过期
+     */
+    int jitterPercent() default 0;
+    
+    /**
+     * 过期时间随机抖动上限（秒），默认0；与jitterPercent同时配置时取较大值
+     */
+    long jitterSeconds() default 0;
+    
+    /**
+     * 是否异步回写，默认false
+     * 开启后回源结果写入Redis、Redis命中回写内存都放入后台队列批量执行，调用方不再等待写缓存；
+     * 队列满时丢弃本次回写（下次未命中会再回写），适合回写耗时占比高、短时间内重复未命中可以接受的缓存
+     */
+    boolean writeBehind() default false;
 }
@@ -0,0 +1,73 @@
+package org.example.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 批量多级缓存注解
+ * 用于标记按一组key批量查询的方法：方法的第一个Collection参数是key集合，返回值是查到的对象列表。
+ * 切面依次做：内存缓存批量查询 -> Redis MGET -> 只用剩余的key调用原方法（一次IN查询）-> pipeline回写两级缓存，
+ * 最终按传入key的顺序返回（查不到的key不出现在结果中）
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MultiLevelCacheBatch {
+    
+    /**
+     * 缓存key的前缀，与单个查询的 @MultiLevelCache 保持一致即可共用缓存
+     */
+    String prefix() default "";
+    
+    /**
+     * 返回对象中对应key的属性名，用于把数据库结果映射回key
+     * 例如：username 表示用 user.getUsername() 作为key
+     */
+    String keyField();
+    
+    /**
+     * 缓存过期时间（秒），默认30分钟
+     */
+    long expireTime() default 1800;
+    
+    /**
+     * 是否使用内存缓存，默认true
+     */
+    boolean useMemory() default true;
+    
+    /**
+     * 是否使用Redis缓存，默认true
+     */
+    boolean useRedis() default true;
+    
+    /**
+     * 是否为数据库中不存在的key缓存空值标记，默认false
+     */
+    boolean cacheNull() default false;
+    
+    /**
+     * 空值标记的过期时间（秒），默认60秒
+     */
+    long nullExpireTime() default 60;
+    
+    /**
+     * 单次数据库查询最多携带的key数量，默认500，超出时分批调用原方法
+     */
+    int loadBatchSize() default 500;
+    
+    /**
+     * 缓存命中时返回值的拷贝策略，默认JSON深拷贝
+     */
+    CopyStrategy copyStrategy() default CopyStrategy.JSON;
+    
+    /**
+     * 过期时间随机抖动上限（占过期时间的百分比），默认0不抖动
+     */
+    int jitterPercent() default 0;
+    
+    /**
+     * 过期时间随机抖动上限（秒），默认0；与jitterPercent同时配置时取较大值
+     */
+    long jitterSeconds() default 0;
+}
@@ -0,0 +1,52 @@
+package org.example.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 多级缓存删除注解
+ * 方法执行成功后删除内存缓存（所有节点）和Redis缓存；当前存在事务时等事务提交后再删除，
+ * 避免其他请求在提交前把旧数据重新读进缓存。可重复标注，分别删除不同前缀的缓存
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Repeatable(MultiLevelCacheEvicts.class)
+public @interface MultiLevelCacheEvict {
+    
+    /**
+     * 缓存key的前缀
+     */
+    String prefix() default "";
+    
+    /**
+     * 要删除的缓存key，支持SpEL表达式
+     * 表达式结果是集合或数组时删除其中每个元素对应的key，例如：#usernames
+     */
+    String[] keys() default {};
+    
+    /**
+     * 按模式删除的完整缓存key（不拼接prefix），支持 * 和 ? 通配符，例如：user:*
+     * Redis侧使用SCAN + UNLINK分批删除，不会阻塞Redis
+     */
+    String[] patterns() default {};
+    
+    /**
+     * 是否删除内存缓存，默认true
+     */
+    boolean useMemory() default true;
+    
+    /**
+     * 是否删除Redis缓存，默认true
+     */
+    boolean useRedis() default true;
+    
+    /**
+     * 延时双删的延迟时间（毫秒），默认0表示不开启
+     * 开启后第一次删除完成后再延迟删除一次，清掉更新期间并发读请求回写的旧值，
+     * 延迟时间应大于一次"读数据库 + 回写缓存"的耗时
+     */
+    long delayedDoubleDeleteMillis() default 0;
+}
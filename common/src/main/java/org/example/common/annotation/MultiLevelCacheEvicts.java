@@ -0,0 +1,16 @@
+package org.example.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link MultiLevelCacheEvict} 的容器注解，同一方法标注多个 @MultiLevelCacheEvict 时由编译器自动生成
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MultiLevelCacheEvicts {
+    
+    MultiLevelCacheEvict[] value();
+}
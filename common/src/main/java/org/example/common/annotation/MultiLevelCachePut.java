@@ -0,0 +1,56 @@
+package org.example.common.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 多级缓存更新注解
+ * 方法总是会执行，执行成功后把返回值写入Redis和本节点内存缓存，并通知其他节点删除旧的内存缓存；
+ * 当前存在事务时等事务提交后再写入。返回null时改为删除缓存
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MultiLevelCachePut {
+    
+    /**
+     * 缓存key的前缀
+     */
+    String prefix() default "";
+    
+    /**
+     * 缓存key，支持SpEL表达式
+     */
+    String key();
+    
+    /**
+     * 缓存过期时间（秒），默认30分钟
+     */
+    long expireTime() default 1800;
+    
+    /**
+     * 是否写入内存缓存，默认true
+     */
+    boolean useMemory() default true;
+    
+    /**
+     * 是否写入Redis缓存，默认true
+     */
+    boolean useRedis() default true;
+    
+    /**
+     * 写入内存缓存时的拷贝策略，默认JSON深拷贝，应与对应 @MultiLevelCache 保持一致
+     */
+    CopyStrategy copyStrategy() default CopyStrategy.JSON;
+    
+    /**
+     * 过期时间随机抖动上限（占过期时间的百分比），默认0不抖动
+     */
+    int jitterPercent() default 0;
+    
+    /**
+     * 过期时间随机抖动上限（秒），默认0；与jitterPercent同时配置时取较大值
+     */
+    long jitterSeconds() default 0;
+}
@@ -1,6 +1,5 @@
 package org.example.framework.aspect;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -10,22 +9,48 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.reflect.MethodSignature;
 import org.example.common.annotation.MultiLevelCache;
+import org.example.common.annotation.MultiLevelCacheEvict;
+import org.example.common.annotation.MultiLevelCachePut;
+import org.example.framework.cache.BloomFilterRegistry;
+import org.example.framework.cache.CacheEvictionExecutor;
+import org.example.framework.cache.CacheKeyTemplate;
+import org.example.framework.cache.CacheMetrics;
+import org.example.framework.cache.CacheRedisTemplates;
+import org.example.framework.cache.CacheRegions;
+import org.example.framework.cache.CacheRefresher;
+import org.example.framework.cache.CacheValueCopier;
+import org.example.framework.cache.CacheVersions;
+import org.example.framework.cache.CacheWriteBehind;
+import org.example.framework.cache.HotKeyDetector;
 import org.example.framework.cache.MemoryCacheManager;
+import org.example.framework.cache.RedisCircuitBreaker;
+import org.example.framework.cache.SingleFlight;
+import org.example.framework.cache.TtlJitter;
+import org.example.framework.util.RedisLockUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cache.support.NullValue;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.expression.EvaluationContext;
 import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.TimeUnit;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 多级缓存切面
  * 实现三重查询逻辑：内存缓存 -> Redis缓存 -> MySQL数据库
+ * 同时处理写路径：@MultiLevelCacheEvict 删除缓存，@MultiLevelCachePut 更新缓存
  */
 @Aspect
 @Component
@@ -36,35 +61,225 @@ public class MultiLevelCacheAspect {
     private MemoryCacheManager memoryCacheManager;
     
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private CacheRedisTemplates cacheRedisTemplates;
     
-    private final ExpressionParser parser = new SpelExpressionParser();
+    @Autowired
+    private RedisLockUtil redisLockUtil;
+    
+    @Autowired
+    private BloomFilterRegistry bloomFilterRegistry;
+    
+    @Autowired
+    private CacheRefresher cacheRefresher;
+    
+    @Autowired
+    private CacheMetrics cacheMetrics;
+    
+    @Autowired
+    private CacheEvictionExecutor cacheEvictionExecutor;
+    
+    @Autowired
+    private CacheRegions cacheRegions;
+    
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+    
+    @Autowired
+    private CacheWriteBehind cacheWriteBehind;
+    
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+    
+    @Autowired
+    private CacheVersions cacheVersions;
     
-    // 用于深拷贝的ObjectMapper（启用默认类型信息，保留泛型）
-    private final ObjectMapper objectMapper = new ObjectMapper()
-        .activateDefaultTyping(
-            new ObjectMapper().getPolymorphicTypeValidator(),
-            ObjectMapper.DefaultTyping.NON_FINAL
-        );
+    /**
+     * 异步查询中Redis返回之后的步骤（布隆过滤器、调用原方法、拷贝和写内存缓存）在此线程池执行，
+     * 不占用Lettuce的I/O线程：在I/O线程上同步访问Redis会卡住同一线程上的所有连接
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor asyncCacheExecutor;
     
     /**
-     * 深拷贝对象，防止缓存污染
-     * 使用JSON序列化/反序列化实现深拷贝
-     * 通过enableDefaultTyping保留类型信息，避免泛型丢失
+     * 跨节点加载租约的key前缀
      */
-    private Object deepCopy(Object source) {
-        if (source == null) {
-            return null;
+    private static final String LOAD_LEASE_PREFIX = "lock:load:";
+    
+    /**
+     * 未抢到租约时轮询Redis的间隔（毫秒）
+     */
+    private static final long LOAD_LEASE_POLL_INTERVAL = 50;
+    
+    /**
+     * 某一层未命中的占位值，与命中空值标记（null）区分
+     */
+    private static final Object MISS = new Object();
+    
+    /**
+     * SpEL解析器，MIXED模式下表达式执行几次后会被编译为字节码
+     */
+    private final ExpressionParser parser = new SpelExpressionParser(
+        new SpelParserConfiguration(SpelCompilerMode.MIXED, MultiLevelCacheAspect.class.getClassLoader()));
+    
+    /**
+     * 每个方法的缓存元数据（注解 + 预编译的key模板），只在第一次调用时反射解析
+     */
+    private final ConcurrentHashMap<Method, CacheOperation> operationCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 方法级缓存元数据
+     * expireTime、useMemory、useRedis、writeBehind、redis 是合并了 cache.regions 区域配置后的值
+     */
+    private static final class CacheOperation {
+        private final MultiLevelCache annotation;
+        private final CacheKeyTemplate keyTemplate;
+        private final CacheMetrics.Stats stats;
+        private final long expireTime;
+        private final boolean useMemory;
+        private final boolean useRedis;
+        private final boolean writeBehind;
+        private final RedisTemplate<String, Object> redis;
+        /**
+         * 方法返回CompletableFuture，缓存的是其结果
+         */
+        private final boolean async;
+        
+        private CacheOperation(MultiLevelCache annotation, CacheKeyTemplate keyTemplate, CacheMetrics.Stats stats,
+                               CacheRegions regions, CacheRedisTemplates redisTemplates, boolean async) {
+            this.annotation = annotation;
+            this.keyTemplate = keyTemplate;
+            this.stats = stats;
+            String region = keyTemplate.cacheName();
+            this.expireTime = regions.expireTime(region, annotation.expireTime());
+            this.useMemory = regions.useMemory(region, annotation.useMemory());
+            this.useRedis = regions.useRedis(region, annotation.useRedis());
+            this.writeBehind = regions.writeBehind(region, annotation.writeBehind());
+            this.redis = redisTemplates.forRegion(region);
+            this.async = async;
         }
-        try {
-            // 序列化为JSON字符串（包含类型信息），再反序列化为新对象
-            String json = objectMapper.writeValueAsString(source);
-            return objectMapper.readValue(json, Object.class);
-        } catch (Exception e) {
-            log.warn("【深拷贝】深拷贝失败，返回原对象: {}", e.getMessage());
-            return source;  // 如果深拷贝失败，返回原对象
+    }
+    
+    /**
+     * 每个方法的删除操作（一个方法可标注多个 @MultiLevelCacheEvict）
+     */
+    private final ConcurrentHashMap<Method, List<EvictOperation>> evictOperationCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 每个方法的更新操作
+     */
+    private final ConcurrentHashMap<Method, PutOperation> putOperationCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 单个 @MultiLevelCacheEvict 的元数据
+     * key和模式按所属区域合并 cache.regions 的 useMemory、useRedis 后分组，和查询时使用同样的缓存层
+     */
+    private static final class EvictOperation {
+        private final MultiLevelCacheEvict annotation;
+        private final List<EvictGroup> groups = new ArrayList<>();
+        
+        private EvictOperation(MultiLevelCacheEvict annotation, List<CacheKeyTemplate> keyTemplates, CacheRegions regions) {
+            this.annotation = annotation;
+            for (CacheKeyTemplate template : keyTemplates) {
+                String region = template.cacheName();
+                group(regions.useMemory(region, annotation.useMemory()), regions.useRedis(region, annotation.useRedis()))
+                    .keyTemplates.add(template);
+            }
+            for (String pattern : annotation.patterns()) {
+                // 区域部分含通配符时可能跨多个区域，沿用注解
+                String region = patternRegion(pattern);
+                boolean useMemory = region != null ? regions.useMemory(region, annotation.useMemory()) : annotation.useMemory();
+                boolean useRedis = region != null ? regions.useRedis(region, annotation.useRedis()) : annotation.useRedis();
+                group(useMemory, useRedis).patterns.add(pattern);
+            }
+        }
+        
+        private EvictGroup group(boolean useMemory, boolean useRedis) {
+            for (EvictGroup group : groups) {
+                if (group.useMemory == useMemory && group.useRedis == useRedis) {
+                    return group;
+                }
+            }
+            EvictGroup group = new EvictGroup(useMemory, useRedis);
+            groups.add(group);
+            return group;
+        }
+        
+        /**
+         * 模式所属的区域：第一个冒号之前的部分（没有冒号时为整个模式），含通配符时返回null
+         */
+        private static String patternRegion(String pattern) {
+            int separator = pattern.indexOf(':');
+            String region = separator < 0 ? pattern : pattern.substring(0, separator);
+            return region.indexOf('*') < 0 && region.indexOf('?') < 0 ? region : null;
+        }
+    }
+    
+    /**
+     * 删除时使用同样缓存层的一组key和模式
+     */
+    private static final class EvictGroup {
+        private final boolean useMemory;
+        private final boolean useRedis;
+        private final List<CacheKeyTemplate> keyTemplates = new ArrayList<>();
+        private final List<String> patterns = new ArrayList<>();
+        
+        private EvictGroup(boolean useMemory, boolean useRedis) {
+            this.useMemory = useMemory;
+            this.useRedis = useRedis;
+        }
+    }
+    
+    /**
+     * @MultiLevelCachePut 的元数据
+     */
+    private static final class PutOperation {
+        private final MultiLevelCachePut annotation;
+        private final CacheKeyTemplate keyTemplate;
+        private final long expireTime;
+        private final boolean useMemory;
+        private final boolean useRedis;
+        
+        private PutOperation(MultiLevelCachePut annotation, CacheKeyTemplate keyTemplate, CacheRegions regions) {
+            this.annotation = annotation;
+            this.keyTemplate = keyTemplate;
+            String region = keyTemplate.cacheName();
+            this.expireTime = regions.expireTime(region, annotation.expireTime());
+            this.useMemory = regions.useMemory(region, annotation.useMemory());
+            this.useRedis = regions.useRedis(region, annotation.useRedis());
         }
     }
+    
+    /**
+     * 回写守卫：读取数据之前记下的内存缓存删除序号和Redis版本号
+     * 回写时据此判断期间是否有更新或删除，有则放弃回写，旧值不会覆盖新值
+     */
+    private static final class BackfillGuard {
+        private final long token;
+        /**
+         * 为null表示还没有读取版本号（或Redis不可用）
+         */
+        private final CacheVersions.Stamp stamp;
+        
+        private BackfillGuard(long token, CacheVersions.Stamp stamp) {
+            this.token = token;
+            this.stamp = stamp;
+        }
+        
+        private long version() {
+            return stamp != null ? stamp.getVersion() : 0;
+        }
+    }
+    
+    /**
+     * 缓存未命中时的请求合并
+     */
+    private final SingleFlight singleFlight = new SingleFlight();
+    
+    /**
+     * 按注解的copyStrategy拷贝缓存值，防止缓存污染
+     */
+    private final CacheValueCopier valueCopier = new CacheValueCopier();
 
     // 1. 执行前通知
     @Before("@annotation(org.example.common.annotation.MultiLevelCache)")
@@ -89,98 +304,694 @@ public class MultiLevelCacheAspect {
      */
     @Around("@annotation(org.example.common.annotation.MultiLevelCache)")
     public Object cacheAround(ProceedingJoinPoint pjp) throws Throwable {
-        // 获取方法签名和注解
+        // 获取方法的缓存元数据（注解和key模板按Method缓存）
         MethodSignature signature = (MethodSignature) pjp.getSignature();
-        Method method = signature.getMethod();
-        MultiLevelCache cacheAnnotation = method.getAnnotation(MultiLevelCache.class);
+        CacheOperation operation = operationCache.computeIfAbsent(signature.getMethod(), method -> {
+            MultiLevelCache annotation = method.getAnnotation(MultiLevelCache.class);
+            CacheKeyTemplate keyTemplate = CacheKeyTemplate.compile(
+                annotation.prefix(), annotation.key(), signature.getParameterNames(), parser);
+            return new CacheOperation(annotation, keyTemplate, cacheMetrics.forName(keyTemplate.cacheName()), cacheRegions,
+                cacheRedisTemplates, isAsync(method));
+        });
+        MultiLevelCache cacheAnnotation = operation.annotation;
         
         // 生成缓存key
-        String cacheKey = generateCacheKey(cacheAnnotation, pjp);
-        long expireTime = cacheAnnotation.expireTime();
+        String key = operation.keyTemplate.resolveKey(pjp.getArgs());
+        String cacheKey = operation.keyTemplate.buildCacheKey(key);
+        boolean refreshEnabled = refreshThreshold(operation) > 0;
+        
+        // 热点key即使所在区域不使用内存缓存，也固定在本地内存中短时间缓存
+        boolean hot = hotKeyDetector.record(cacheKey);
+        boolean memoryTier = operation.useMemory || hot;
+        // 读取任何数据之前记下删除序号，之后的回写据此判断期间是否被删除过
+        long token = memoryCacheManager.invalidationToken();
+        CacheVersions.Stamp stamp = null;
         
         log.info("【三重缓存查询】开始查询，key={}", cacheKey);
         
+        // 返回CompletableFuture的方法：各层查询和回写都不阻塞调用线程
+        if (operation.async) {
+            return cacheAroundAsync(pjp, operation, key, cacheKey, memoryTier, refreshEnabled, token);
+        }
+        
         // ==================== 第一层：内存缓存 ====================
-        if (cacheAnnotation.useMemory()) {
-            Object memoryData = memoryCacheManager.get(cacheKey);
-            if (memoryData != null) {
-                log.info("【三重缓存查询】内存缓存命中，key={}", cacheKey);
-                // 返回深拷贝对象，防止调用方修改缓存中的数据
-                return deepCopy(memoryData);
+        if (memoryTier) {
+            Object memoryResult = readMemory(pjp, operation, cacheKey, refreshEnabled);
+            if (memoryResult != MISS) {
+                return memoryResult;
             }
-            log.info("【三重缓存查询】内存缓存未命中，key={}", cacheKey);
         }
         
         // ==================== 第二层：Redis缓存 ====================
-        if (cacheAnnotation.useRedis()) {
-            Object redisData = redisTemplate.opsForValue().get(cacheKey);
-            if (redisData != null) {
-                log.info("【三重缓存查询】Redis缓存命中，key={}", cacheKey);
-                
-                // 回写到内存缓存
-                if (cacheAnnotation.useMemory()) {
-                    memoryCacheManager.put(cacheKey, redisData, expireTime);
-                    log.info("【三重缓存查询】数据回写到内存缓存");
+        if (operation.useRedis) {
+            // 用pipeline一次取回值、版本号（需要判断是否提前刷新时还有剩余过期时间）
+            CacheVersions.Versioned versioned = redisCircuitBreaker.execute(
+                () -> cacheVersions.get(operation.redis, cacheKey, refreshEnabled), null);
+            Object redisResult = readRedis(pjp, operation, cacheKey, memoryTier, refreshEnabled, versioned, token);
+            if (redisResult != MISS) {
+                return redisResult;
+            }
+            stamp = versioned != null ? versioned.getStamp() : null;
+        }
+        
+        // ==================== 布隆过滤器 ====================
+        if (rejectedByBloomFilter(operation, key, cacheKey)) {
+            return null;
+        }
+        
+        // ==================== 第三层：MySQL数据库 ====================
+        BackfillGuard guard = new BackfillGuard(token, stamp);
+        if (cacheAnnotation.singleFlight()) {
+            return loadWithSingleFlight(pjp, operation, cacheKey, guard);
+        }
+        return load(pjp, operation, cacheKey, guard);
+    }
+    
+    /**
+     * 异步三重缓存查询
+     * 内存命中直接返回已完成的Future；Redis用Lettuce异步命令查询；未命中时调用原方法拿到加载的Future，
+     * 在其完成后回写，调用线程（如Servlet线程）全程不等待。
+     * 异步方法不使用跨节点租约（distributedLoad）和异步回写队列（writeBehind），回写本身已不阻塞调用方
+     */
+    private CompletableFuture<Object> cacheAroundAsync(ProceedingJoinPoint pjp, CacheOperation operation, String key,
+                                                       String cacheKey, boolean memoryTier, boolean refreshEnabled,
+                                                       long token) {
+        if (memoryTier) {
+            Object memoryResult = readMemory(pjp, operation, cacheKey, refreshEnabled);
+            if (memoryResult != MISS) {
+                return CompletableFuture.completedFuture(memoryResult);
+            }
+        }
+        if (!operation.useRedis) {
+            return rejectedByBloomFilter(operation, key, cacheKey)
+                ? CompletableFuture.completedFuture(null)
+                : loadAsync(pjp, operation, cacheKey, new BackfillGuard(token, null));
+        }
+        return redisCircuitBreaker.executeAsync(() -> cacheVersions.getAsync(operation.redis, cacheKey, refreshEnabled), null)
+            .thenComposeAsync(versioned -> {
+                Object redisResult = readRedis(pjp, operation, cacheKey, memoryTier, refreshEnabled, versioned, token);
+                if (redisResult != MISS) {
+                    return CompletableFuture.completedFuture(redisResult);
                 }
-                
-                // 返回深拷贝对象，防止调用方修改缓存中的数据
-                return deepCopy(redisData);
+                if (rejectedByBloomFilter(operation, key, cacheKey)) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                return loadAsync(pjp, operation, cacheKey, new BackfillGuard(token, versioned != null ? versioned.getStamp() : null));
+            }, asyncCacheExecutor);
+    }
+    
+    /**
+     * 查询内存缓存
+     * @return 命中的值（空值标记返回null），未命中返回 MISS
+     */
+    private Object readMemory(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey, boolean refreshEnabled) {
+        CacheMetrics.Stats stats = operation.stats;
+        Object memoryData = memoryCacheManager.get(cacheKey);
+        if (memoryData instanceof NullValue) {
+            stats.recordL1Hit();
+            log.info("【三重缓存查询】内存缓存命中空值标记，key={}", cacheKey);
+            return null;
+        }
+        if (memoryData != null) {
+            stats.recordL1Hit();
+            log.info("【三重缓存查询】内存缓存命中，key={}", cacheKey);
+            if (refreshEnabled) {
+                refreshIfNeeded(pjp, operation, cacheKey, memoryCacheManager.getRemainingTtl(cacheKey));
             }
+            // 按拷贝策略返回，防止调用方修改缓存中的数据
+            return fromMemory(operation.annotation, memoryData);
+        }
+        stats.recordL1Miss();
+        log.info("【三重缓存查询】内存缓存未命中，key={}", cacheKey);
+        return MISS;
+    }
+    
+    /**
+     * 处理Redis的查询结果，命中时回写内存缓存
+     * @param versioned 查询结果，为null表示Redis熔断或访问失败
+     * @return 命中的值（空值标记返回null），未命中或Redis不可用返回 MISS
+     */
+    private Object readRedis(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey, boolean memoryTier,
+                             boolean refreshEnabled, CacheVersions.Versioned versioned, long token) {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        CacheMetrics.Stats stats = operation.stats;
+        if (versioned == null) {
+            // Redis熔断或超时：不等待Redis，直接查询数据库
+            log.info("【三重缓存查询】Redis不可用（熔断器{}），跳过Redis，key={}", redisCircuitBreaker.getState(), cacheKey);
+            return MISS;
+        }
+        Object redisData = versioned.getValue();
+        long redisTtlMillis = versioned.getTtlMillis();
+        BackfillGuard guard = new BackfillGuard(token, versioned.getStamp());
+        if (redisData == null) {
+            stats.recordRedisMiss();
             log.info("【三重缓存查询】Redis缓存未命中，key={}", cacheKey);
+            return MISS;
+        }
+        if (redisData instanceof NullValue) {
+            stats.recordRedisHit();
+            log.info("【三重缓存查询】Redis缓存命中空值标记，key={}", cacheKey);
+            if (operation.useMemory) {
+                memoryCacheManager.putVersioned(cacheKey, NullValue.INSTANCE,
+                    jitteredTtl(cacheAnnotation, cacheAnnotation.nullExpireTime()), guard.version(), token, false);
+            }
+            return null;
+        }
+        stats.recordRedisHit();
+        log.info("【三重缓存查询】Redis缓存命中，key={}", cacheKey);
+        if (refreshEnabled) {
+            refreshIfNeeded(pjp, operation, cacheKey, redisTtlMillis);
         }
         
-        // ==================== 第三层：MySQL数据库 ====================
+        // 回写到内存缓存（已知Redis剩余时间时与之对齐，避免内存中的旧值活得比Redis更久，按代价调整时只缩短不延长）
+        if (memoryTier) {
+            // 未命中代价用本节点记录的数据库加载耗时，而不是这次Redis查询的耗时
+            long loadMicros = memoryCacheManager.loadCost(cacheKey);
+            long memoryTtl;
+            if (redisTtlMillis > 0) {
+                long redisTtl = (redisTtlMillis + 999) / 1000;
+                memoryTtl = memoryTtl(cacheKey, redisTtl, loadMicros);
+            } else {
+                memoryTtl = memoryTtl(cacheKey, jitteredTtl(cacheAnnotation, storageTtl(operation)), loadMicros);
+            }
+            if (writeBehind(operation) && !memoryCacheManager.isOffHeap()) {
+                Object stored = valueCopier.toMemory(cacheAnnotation.copyStrategy(), redisData);
+                cacheWriteBehind.submit(cacheKey, null, null, 0, null,
+                    () -> storeMemory(cacheKey, stored, memoryTtl, loadMicros, guard));
+                log.info("【三重缓存查询】数据异步回写到内存缓存");
+            } else {
+                putMemory(operation, cacheKey, redisData, memoryTtl, loadMicros, guard);
+                log.info("【三重缓存查询】数据回写到内存缓存");
+            }
+            
+            // 内存缓存与返回值共享同一个对象时，返回拷贝，防止调用方修改缓存中的数据
+            if (valueCopier.sharesMemoryReference(cacheAnnotation.copyStrategy()) && !memoryCacheManager.isOffHeap()) {
+                return valueCopier.copy(cacheAnnotation.copyStrategy(), redisData);
+            }
+        }
+        return redisData;
+    }
+    
+    /**
+     * 布隆过滤器判定key不存在时跳过MySQL查询
+     */
+    private boolean rejectedByBloomFilter(CacheOperation operation, String key, String cacheKey) {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        if (!cacheAnnotation.bloomFilter().isEmpty()
+                && !bloomFilterRegistry.mightContain(cacheAnnotation.bloomFilter(), key)) {
+            operation.stats.recordBloomRejection();
+            log.info("【三重缓存查询】布隆过滤器判定不存在，跳过MySQL查询，key={}", cacheKey);
+            return true;
+        }
+        return false;
+    }
+    
+    /**
+     * 环绕通知，拦截@MultiLevelCacheEvict注解（含重复标注）
+     * 方法执行成功后（有事务时为事务提交后）删除两级缓存，方法抛异常则不删除
+     */
+    @Around("@annotation(org.example.common.annotation.MultiLevelCacheEvict) "
+        + "|| @annotation(org.example.common.annotation.MultiLevelCacheEvicts)")
+    public Object evictAround(ProceedingJoinPoint pjp) throws Throwable {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        List<EvictOperation> operations = evictOperationCache.computeIfAbsent(signature.getMethod(), method -> {
+            List<EvictOperation> result = new ArrayList<>();
+            for (MultiLevelCacheEvict annotation : method.getAnnotationsByType(MultiLevelCacheEvict.class)) {
+                List<CacheKeyTemplate> templates = new ArrayList<>();
+                for (String key : annotation.keys()) {
+                    templates.add(CacheKeyTemplate.compile(annotation.prefix(), key, signature.getParameterNames(), parser));
+                }
+                result.add(new EvictOperation(annotation, templates, cacheRegions));
+            }
+            return result;
+        });
+        
+        Object result = pjp.proceed();
+        
+        Object[] args = pjp.getArgs();
+        for (EvictOperation operation : operations) {
+            MultiLevelCacheEvict annotation = operation.annotation;
+            for (EvictGroup group : operation.groups) {
+                List<String> cacheKeys = new ArrayList<>();
+                for (CacheKeyTemplate template : group.keyTemplates) {
+                    for (String key : template.resolveKeys(args)) {
+                        cacheKeys.add(template.buildCacheKey(key));
+                    }
+                }
+                cacheEvictionExecutor.runAfterCommit(() -> {
+                    // 延时双删先排上，本次删除失败时也能再删一次
+                    if (annotation.delayedDoubleDeleteMillis() > 0) {
+                        cacheEvictionExecutor.evictLater(cacheKeys, group.patterns, group.useMemory, group.useRedis,
+                            annotation.delayedDoubleDeleteMillis());
+                    }
+                    cacheEvictionExecutor.evict(cacheKeys, group.patterns, group.useMemory, group.useRedis);
+                });
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 环绕通知，拦截@MultiLevelCachePut注解
+     * 方法执行成功后（有事务时为事务提交后）把返回值写入两级缓存，返回null时删除缓存
+     */
+    @Around("@annotation(org.example.common.annotation.MultiLevelCachePut)")
+    public Object putAround(ProceedingJoinPoint pjp) throws Throwable {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        PutOperation operation = putOperationCache.computeIfAbsent(signature.getMethod(), method -> {
+            MultiLevelCachePut annotation = method.getAnnotation(MultiLevelCachePut.class);
+            return new PutOperation(annotation, CacheKeyTemplate.compile(
+                annotation.prefix(), annotation.key(), signature.getParameterNames(), parser), cacheRegions);
+        });
+        MultiLevelCachePut annotation = operation.annotation;
+        
+        Object result = pjp.proceed();
+        
+        String cacheKey = operation.keyTemplate.buildCacheKey(operation.keyTemplate.resolveKey(pjp.getArgs()));
+        cacheEvictionExecutor.runAfterCommit(() -> {
+            if (result == null) {
+                cacheEvictionExecutor.evict(List.of(cacheKey), List.of(), operation.useMemory, operation.useRedis);
+                return;
+            }
+            // 内存缓存保存拷贝，调用方之后修改返回值不会影响缓存
+            Object memoryValue = valueCopier.sharesMemoryReference(annotation.copyStrategy())
+                ? valueCopier.copy(annotation.copyStrategy(), result)
+                : valueCopier.toMemory(annotation.copyStrategy(), result);
+            long expireTime = TtlJitter.apply(operation.expireTime, annotation.jitterPercent(), annotation.jitterSeconds());
+            cacheEvictionExecutor.put(cacheKey, result, memoryValue, expireTime, operation.useMemory, operation.useRedis);
+        });
+        return result;
+    }
+    
+    /**
+     * 加载数据：开启跨节点租约时先抢租约，否则直接查询MySQL
+     */
+    private Object load(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey, BackfillGuard guard) throws Throwable {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        // Redis熔断期间不抢租约，各节点直接查询
+        if (cacheAnnotation.distributedLoad() && operation.useRedis && !redisCircuitBreaker.isOpen()) {
+            return loadWithLease(pjp, operation, cacheKey, guard);
+        }
+        return loadAndBackfill(pjp, operation, cacheKey, guard);
+    }
+    
+    /**
+     * 单飞加载：同一个key只有一个线程查询MySQL，其余线程等待并拿到结果的深拷贝
+     * 等待超时则降级为自行加载，开启跨节点租约时仍先抢租约
+     */
+    private Object loadWithSingleFlight(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey,
+                                        BackfillGuard guard) throws Throwable {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        try {
+            return singleFlight.execute(cacheKey, cacheAnnotation.singleFlightTimeout(),
+                () -> load(pjp, operation, cacheKey, guard),
+                value -> valueCopier.copy(cacheAnnotation.copyStrategy(), value));
+        } catch (TimeoutException e) {
+            log.warn("【三重缓存查询】等待合并加载超时({}ms)，自行加载，key={}", cacheAnnotation.singleFlightTimeout(), cacheKey);
+            return load(pjp, operation, cacheKey, guard);
+        }
+    }
+    
+    /**
+     * 跨节点租约加载
+     * 抢到租约的节点查询MySQL并写入Redis；没抢到的节点轮询Redis等待新值，
+     * 租约消失（持有者完成或宕机）仍没有值、或等待超时，都降级为本地查询
+     */
+    private Object loadWithLease(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey,
+                                 BackfillGuard guard) throws Throwable {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        String leaseKey = LOAD_LEASE_PREFIX + cacheKey;
+        String leaseValue = redisLockUtil.generateLockValue();
+        Boolean leased = redisCircuitBreaker.execute(
+            () -> redisLockUtil.tryLock(leaseKey, leaseValue, cacheAnnotation.loadLeaseTime()), null);
+        if (leased == null) {
+            return loadAndBackfill(pjp, operation, cacheKey, guard);
+        }
+        if (leased) {
+            try {
+                return loadAndBackfill(pjp, operation, cacheKey, guard);
+            } finally {
+                redisCircuitBreaker.execute(() -> {
+                    redisLockUtil.unlock(leaseKey, leaseValue);
+                    return null;
+                }, null);
+            }
+        }
+        
+        long deadline = System.currentTimeMillis() + cacheAnnotation.loadLeaseWaitTimeout();
+        while (System.currentTimeMillis() < deadline) {
+            Thread.sleep(LOAD_LEASE_POLL_INTERVAL);
+            CacheVersions.Versioned versioned = redisCircuitBreaker.execute(
+                () -> cacheVersions.get(operation.redis, cacheKey, false), null);
+            if (versioned == null) {
+                log.warn("【三重缓存查询】等待其他节点加载时Redis不可用，自行查询MySQL，key={}", cacheKey);
+                return loadAndBackfill(pjp, operation, cacheKey, guard);
+            }
+            Object redisData = versioned.getValue();
+            if (redisData instanceof NullValue) {
+                log.info("【三重缓存查询】其他节点已加载完成，结果为空，key={}", cacheKey);
+                return null;
+            }
+            if (redisData != null) {
+                log.info("【三重缓存查询】其他节点已加载完成，从Redis获取，key={}", cacheKey);
+                if (operation.useMemory || hotKeyDetector.isHot(cacheKey)) {
+                    putMemory(operation, cacheKey, redisData, jitteredTtl(cacheAnnotation, storageTtl(operation)),
+                        memoryCacheManager.loadCost(cacheKey), new BackfillGuard(guard.token, versioned.getStamp()));
+                    if (valueCopier.sharesMemoryReference(cacheAnnotation.copyStrategy()) && !memoryCacheManager.isOffHeap()) {
+                        return valueCopier.copy(cacheAnnotation.copyStrategy(), redisData);
+                    }
+                }
+                return redisData;
+            }
+            if (!redisCircuitBreaker.execute(() -> redisLockUtil.isLocked(leaseKey), false)) {
+                log.warn("【三重缓存查询】加载租约已释放但Redis无数据，自行查询MySQL，key={}", cacheKey);
+                return loadAndBackfill(pjp, operation, cacheKey, guard);
+            }
+        }
+        log.warn("【三重缓存查询】等待其他节点加载超时({}ms)，自行查询MySQL，key={}", cacheAnnotation.loadLeaseWaitTimeout(), cacheKey);
+        return loadAndBackfill(pjp, operation, cacheKey, guard);
+    }
+    
+    /**
+     * 查询MySQL并回写到Redis和内存缓存
+     * 回写Redis时比较查询前的版本号，期间被更新或删除过则放弃回写
+     */
+    private Object loadAndBackfill(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey,
+                                   BackfillGuard readGuard) throws Throwable {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        // 没有随Redis查询一起取到版本号时（异步刷新、Redis读取失败），在查询MySQL之前读取
+        BackfillGuard guard = operation.useRedis && readGuard.stamp == null
+            ? new BackfillGuard(readGuard.token, redisCircuitBreaker.execute(() -> cacheVersions.stamp(cacheKey), null))
+            : readGuard;
+        // 两个缓存层使用同一个加抖动后的过期时间
+        long expireTime = jitteredTtl(cacheAnnotation, storageTtl(operation));
         log.info("【三重缓存查询】查询MySQL数据库...");
-        Object dbData = pjp.proceed();
+        long loadStart = System.nanoTime();
+        Object dbData;
+        try {
+            dbData = pjp.proceed();
+        } catch (Throwable t) {
+            operation.stats.recordLoad(System.nanoTime() - loadStart, false);
+            throw t;
+        }
+        long loadNanos = System.nanoTime() - loadStart;
+        operation.stats.recordLoad(loadNanos, true);
+        long loadMicros = memoryCacheManager.recordLoadCost(cacheKey, loadNanos / 1000);
         
         if (dbData == null) {
             log.warn("【三重缓存查询】MySQL查询结果为null，key={}", cacheKey);
+            if (cacheAnnotation.cacheNull()) {
+                cacheNullValue(operation, cacheKey, guard);
+            }
             return null;
         }
         
         log.info("【三重缓存查询】MySQL查询成功，key={}", cacheKey);
         
         // 数据回写到Redis和内存缓存
-        if (cacheAnnotation.useRedis()) {
-            redisTemplate.opsForValue().set(cacheKey, dbData, expireTime, TimeUnit.SECONDS);
-            log.info("【三重缓存查询】数据回写到Redis缓存，过期时间={}秒", expireTime);
+        if (writeBehind(operation)) {
+            backfillBehind(operation, cacheKey, dbData, expireTime, loadMicros, guard);
+            return dbData;
+        }
+        if (!backfillRedis(operation, cacheKey, dbData, expireTime, guard)) {
+            // 查询期间已被更新或删除，查到的可能是旧数据，内存缓存也不写
+            return dbData;
         }
         
-        if (cacheAnnotation.useMemory()) {
-            memoryCacheManager.put(cacheKey, dbData, expireTime);
-            log.info("【三重缓存查询】数据回写到内存缓存，过期时间={}秒", expireTime);
+        if (operation.useMemory || hotKeyDetector.isHot(cacheKey)) {
+            long memoryTtl = memoryTtl(cacheKey, expireTime, loadMicros);
+            if (putMemory(operation, cacheKey, dbData, memoryTtl, loadMicros, guard)) {
+                log.info("【三重缓存查询】数据回写到内存缓存，过期时间={}秒", memoryTtl);
+            }
         }
         
         return dbData;
     }
     
     /**
-     * 生成缓存key
-     * 支持SpEL表达式，例如：#username
+     * 比较版本号后回写Redis；Redis不可用或没有版本号时跳过
+     * @return false=查询期间已被更新或删除，放弃回写
      */
-    private String generateCacheKey(MultiLevelCache cacheAnnotation, ProceedingJoinPoint pjp) {
-        String prefix = cacheAnnotation.prefix();
-        String keyExpression = cacheAnnotation.key();
-        
-        // 如果key不包含SpEL表达式，直接返回
-        if (!keyExpression.contains("#")) {
-            return prefix.isEmpty() ? keyExpression : prefix + ":" + keyExpression;
+    private boolean backfillRedis(CacheOperation operation, String cacheKey, Object value, long expireTime, BackfillGuard guard) {
+        if (!operation.useRedis || guard.stamp == null) {
+            return true;
         }
-        
-        // 解析SpEL表达式
-        MethodSignature signature = (MethodSignature) pjp.getSignature();
-        String[] paramNames = signature.getParameterNames();
-        Object[] args = pjp.getArgs();
-        
-        // 创建SpEL上下文
-        EvaluationContext context = new StandardEvaluationContext();
-        for (int i = 0; i < paramNames.length; i++) {
-            context.setVariable(paramNames[i], args[i]);
+        Boolean written = redisCircuitBreaker.execute(
+            () -> cacheVersions.setIfCurrent(operation.redis, cacheKey, value, expireTime, guard.stamp), null);
+        if (Boolean.TRUE.equals(written)) {
+            log.info("【三重缓存查询】数据回写到Redis缓存，过期时间={}秒", expireTime);
         }
-        
-        // 解析表达式
-        String key = parser.parseExpression(keyExpression).getValue(context, String.class);
-        
-        return prefix.isEmpty() ? key : prefix + ":" + key;
+        return !Boolean.FALSE.equals(written);
+    }
+    
+    /**
+     * 异步加载：开启单飞时同一个key只发起一次加载，其余调用拿到结果的深拷贝
+     */
+    private CompletableFuture<Object> loadAsync(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey,
+                                                BackfillGuard guard) {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        if (cacheAnnotation.singleFlight()) {
+            return singleFlight.executeAsync(cacheKey, () -> loadAndBackfillAsync(pjp, operation, cacheKey, guard),
+                value -> valueCopier.copy(cacheAnnotation.copyStrategy(), value));
+        }
+        return loadAndBackfillAsync(pjp, operation, cacheKey, guard);
+    }
+    
+    /**
+     * 调用原方法拿到加载的Future，加载完成后回写Redis和内存缓存
+     * 返回的Future在加载完成时即完成，不等待回写
+     */
+    private CompletableFuture<Object> loadAndBackfillAsync(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey,
+                                                           BackfillGuard readGuard) {
+        // 没有随Redis查询一起取到版本号时（异步刷新、Redis读取失败），在查询MySQL之前读取
+        CompletableFuture<CacheVersions.Stamp> stampRead = operation.useRedis && readGuard.stamp == null
+            ? redisCircuitBreaker.executeAsync(() -> cacheVersions.stampAsync(cacheKey), null)
+            : CompletableFuture.completedFuture(readGuard.stamp);
+        return stampRead.thenComposeAsync(stamp -> {
+            BackfillGuard guard = new BackfillGuard(readGuard.token, stamp);
+            log.info("【三重缓存查询】异步查询MySQL数据库...");
+            long loadStart = System.nanoTime();
+            CompletableFuture<Object> loaded;
+            try {
+                loaded = toFuture(pjp.proceed());
+            } catch (Throwable t) {
+                loaded = CompletableFuture.failedFuture(t);
+            }
+            return loaded.whenComplete((dbData, error) -> {
+                long loadNanos = System.nanoTime() - loadStart;
+                operation.stats.recordLoad(loadNanos, error == null);
+                if (error == null) {
+                    backfillAsync(operation, cacheKey, dbData, memoryCacheManager.recordLoadCost(cacheKey, loadNanos / 1000), guard);
+                }
+            });
+        }, asyncCacheExecutor);
+    }
+    
+    /**
+     * 异步方法的回写：值在加载完成的线程上拷贝、序列化，Redis用异步命令写入，被接受后再写内存缓存
+     */
+    private void backfillAsync(CacheOperation operation, String cacheKey, Object dbData, long loadMicros, BackfillGuard guard) {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        try {
+            Object value;
+            Object stored;
+            long expireTime;
+            if (dbData == null) {
+                log.warn("【三重缓存查询】MySQL查询结果为null，key={}", cacheKey);
+                if (!cacheAnnotation.cacheNull()) {
+                    return;
+                }
+                value = NullValue.INSTANCE;
+                stored = operation.useMemory ? NullValue.INSTANCE : null;
+                expireTime = jitteredTtl(cacheAnnotation, cacheAnnotation.nullExpireTime());
+            } else {
+                log.info("【三重缓存查询】MySQL查询成功，key={}", cacheKey);
+                value = dbData;
+                stored = operation.useMemory || hotKeyDetector.isHot(cacheKey)
+                    ? valueCopier.toMemory(cacheAnnotation.copyStrategy(), dbData) : null;
+                expireTime = jitteredTtl(cacheAnnotation, storageTtl(operation));
+            }
+            CompletableFuture<Boolean> redisWrite = operation.useRedis && guard.stamp != null
+                ? redisCircuitBreaker.executeAsync(
+                    () -> cacheVersions.setIfCurrentAsync(operation.redis, cacheKey, value, expireTime, guard.stamp), null)
+                : CompletableFuture.completedFuture(null);
+            redisWrite.whenCompleteAsync((written, error) -> {
+                if (error != null) {
+                    log.warn("【三重缓存查询】异步回写Redis失败，key={}", cacheKey, error);
+                    return;
+                }
+                // 查询期间已被更新或删除，查到的可能是旧数据，内存缓存也不写
+                if (Boolean.FALSE.equals(written) || stored == null) {
+                    return;
+                }
+                if (stored instanceof NullValue) {
+                    memoryCacheManager.putVersioned(cacheKey, stored, expireTime, guard.version(), guard.token, false);
+                } else {
+                    storeMemory(cacheKey, stored, memoryTtl(cacheKey, expireTime, loadMicros), loadMicros, guard);
+                }
+                log.info("【三重缓存查询】数据异步回写到缓存，过期时间={}秒", expireTime);
+            }, asyncCacheExecutor);
+        } catch (RuntimeException e) {
+            log.warn("【三重缓存查询】异步回写失败，key={}", cacheKey, e);
+        }
+    }
+    
+    /**
+     * 异步回写：Redis的值当前线程序列化后排队，调用方不等待网络往返；
+     * 堆外模式下内存写入本身就是序列化，仍在当前线程执行，保证写入的是调用方修改之前的值
+     */
+    private void backfillBehind(CacheOperation operation, String cacheKey, Object dbData, long expireTime,
+                                long loadMicros, BackfillGuard guard) {
+        boolean memory = operation.useMemory || hotKeyDetector.isHot(cacheKey);
+        Runnable memoryWrite = null;
+        if (memory) {
+            long memoryTtl = memoryTtl(cacheKey, expireTime, loadMicros);
+            if (memoryCacheManager.isOffHeap()) {
+                putMemory(operation, cacheKey, dbData, memoryTtl, loadMicros, guard);
+            } else {
+                Object stored = valueCopier.toMemory(operation.annotation.copyStrategy(), dbData);
+                memoryWrite = () -> storeMemory(cacheKey, stored, memoryTtl, loadMicros, guard);
+            }
+        }
+        // 没有版本号（Redis不可用）时不写Redis，无法判断期间是否有更新
+        boolean redis = operation.useRedis && guard.stamp != null;
+        if (redis || memoryWrite != null) {
+            cacheWriteBehind.submit(cacheKey, redis ? operation.redis : null, dbData, expireTime, guard.stamp, memoryWrite);
+        }
+        log.info("【三重缓存查询】数据异步回写到缓存，过期时间={}秒", expireTime);
+    }
+    
+    /**
+     * 是否异步回写：注解或区域开启，且异步回写组件可用
+     */
+    private boolean writeBehind(CacheOperation operation) {
+        return operation.writeBehind && cacheWriteBehind.isEnabled();
+    }
+    
+    /**
+     * 缓存实际保存时间（秒）：过期时间 + 允许返回旧值的时间
+     */
+    private long storageTtl(CacheOperation operation) {
+        return operation.expireTime + Math.max(0, operation.annotation.staleTtl());
+    }
+    
+    /**
+     * 按注解配置给过期时间加随机抖动
+     */
+    private long jitteredTtl(MultiLevelCache cacheAnnotation, long ttl) {
+        return TtlJitter.apply(ttl, cacheAnnotation.jitterPercent(), cacheAnnotation.jitterSeconds());
+    }
+    
+    /**
+     * 触发异步刷新的缓存年龄（秒），0表示不开启
+     * 只配置staleTtl时，超过expireTime即触发刷新
+     */
+    private long refreshThreshold(CacheOperation operation) {
+        MultiLevelCache cacheAnnotation = operation.annotation;
+        if (cacheAnnotation.refreshAfter() > 0) {
+            return cacheAnnotation.refreshAfter();
+        }
+        return cacheAnnotation.staleTtl() > 0 ? operation.expireTime : 0;
+    }
+    
+    /**
+     * 根据剩余存活时间推算缓存年龄，超过刷新阈值时提交一次异步刷新（同一key只会有一个刷新任务）
+     */
+    private void refreshIfNeeded(ProceedingJoinPoint pjp, CacheOperation operation, String cacheKey, long remainingMillis) {
+        if (remainingMillis < 0) {
+            return;
+        }
+        long ageMillis = storageTtl(operation) * 1000 - remainingMillis;
+        if (ageMillis < refreshThreshold(operation) * 1000) {
+            return;
+        }
+        boolean submitted = cacheRefresher.refreshAsync(cacheKey, () -> {
+            try {
+                // 在刷新线程里重新记下删除序号，版本号由loadAndBackfill在查询MySQL前读取
+                BackfillGuard guard = new BackfillGuard(memoryCacheManager.invalidationToken(), null);
+                if (operation.async) {
+                    loadAndBackfillAsync(pjp, operation, cacheKey, guard).join();
+                } else {
+                    loadAndBackfill(pjp, operation, cacheKey, guard);
+                }
+            } catch (Throwable t) {
+                throw new IllegalStateException("异步刷新缓存失败: " + cacheKey, t);
+            }
+        });
+        if (submitted) {
+            log.info("【三重缓存查询】缓存已存在{}秒，返回旧值并异步刷新，key={}", ageMillis / 1000, cacheKey);
+        }
+    }
+    
+    /**
+     * 返回类型为CompletableFuture/CompletionStage的方法按异步方式缓存其结果
+     */
+    private static boolean isAsync(Method method) {
+        Class<?> returnType = method.getReturnType();
+        return returnType == CompletableFuture.class || returnType == CompletionStage.class;
+    }
+    
+    /**
+     * 原方法返回的Future（返回null视为结果为null）
+     */
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Object> toFuture(Object result) {
+        return result == null
+            ? CompletableFuture.completedFuture(null)
+            : ((CompletionStage<Object>) result).toCompletableFuture();
+    }
+    
+    /**
+     * 把内存缓存命中的值交给调用方
+     * 堆外模式下取出的已经是新反序列化的对象，不需要再拷贝
+     */
+    private Object fromMemory(MultiLevelCache cacheAnnotation, Object memoryData) {
+        if (memoryCacheManager.isOffHeap() && !(memoryData instanceof CacheValueCopier.SerializedValue)) {
+            return memoryData;
+        }
+        return valueCopier.fromMemory(cacheAnnotation.copyStrategy(), memoryData);
+    }
+    
+    /**
+     * 按拷贝策略写入内存缓存（SERIALIZED策略写入预序列化的字节）
+     * 热点key以较短的过期时间固定写入，不会被容量淘汰挤出
+     * @param loadMicros 该key的平均数据库加载耗时（微秒），-1表示未知
+     */
+    private boolean putMemory(CacheOperation operation, String cacheKey, Object value, long expireTime, long loadMicros,
+                              BackfillGuard guard) {
+        return storeMemory(cacheKey, valueCopier.toMemory(operation.annotation.copyStrategy(), value), expireTime,
+            loadMicros, guard);
+    }
+    
+    /**
+     * 写入已按拷贝策略处理过的值
+     * 读取之后该key被删除、更新过时不写入；加载很快又很少访问的key由内存缓存拒绝准入
+     */
+    private boolean storeMemory(String cacheKey, Object stored, long expireTime, long loadMicros, BackfillGuard guard) {
+        boolean hot = hotKeyDetector.isHot(cacheKey);
+        long ttl = hot ? Math.min(expireTime, hotKeyDetector.getLocalTtlSeconds()) : expireTime;
+        return memoryCacheManager.putVersioned(cacheKey, stored, ttl, guard.version(), guard.token, hot, loadMicros);
+    }
+    
+    /**
+     * 内存缓存的过期时间：按未命中代价和访问频率调整，但不超过Redis中的过期时间，
+     * 否则Redis中的值过期、被重新加载后，本节点仍在返回旧值
+     */
+    private long memoryTtl(String cacheKey, long expireTime, long loadMicros) {
+        return Math.min(expireTime, memoryCacheManager.adaptTtl(cacheKey, expireTime, loadMicros));
+    }
+    
+    /**
+     * 写入空值标记，防止不存在的数据反复穿透到MySQL
+     */
+    private void cacheNullValue(CacheOperation operation, String cacheKey, BackfillGuard guard) {
+        long nullExpireTime = jitteredTtl(operation.annotation, operation.annotation.nullExpireTime());
+        if (!backfillRedis(operation, cacheKey, NullValue.INSTANCE, nullExpireTime, guard)) {
+            return;
+        }
+        if (operation.useMemory) {
+            memoryCacheManager.putVersioned(cacheKey, NullValue.INSTANCE, nullExpireTime, guard.version(), guard.token, false);
+        }
+        log.info("【三重缓存查询】已写入空值标记，key={}, 过期时间={}秒", cacheKey, nullExpireTime);
     }
 }
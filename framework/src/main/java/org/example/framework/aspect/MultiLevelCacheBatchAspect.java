@@ -0,0 +1,379 @@
+package org.example.framework.aspect;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.common.annotation.MultiLevelCacheBatch;
+import org.example.framework.cache.CacheMetrics;
+import org.example.framework.cache.CacheRedisTemplates;
+import org.example.framework.cache.CacheRegions;
+import org.example.framework.cache.CacheValueCopier;
+import org.example.framework.cache.CacheVersions;
+import org.example.framework.cache.MemoryCacheManager;
+import org.example.framework.cache.RedisCircuitBreaker;
+import org.example.framework.cache.TtlJitter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量多级缓存切面
+ * 一次调用内完成：内存缓存批量查询 -> Redis MGET -> 剩余key一次IN查询 -> pipeline回写，
+ * 避免N个key走N次单key切面和N次SQL
+ * MGET时一并读取版本号，回写时逐个key比较，查询期间被更新或删除的key不回写
+ * Redis访问经过熔断器：熔断或失败时当作全部未命中直接查MySQL，也不回写Redis
+ */
+@Aspect
+@Component
+@Slf4j
+public class MultiLevelCacheBatchAspect {
+    
+    @Autowired
+    private MemoryCacheManager memoryCacheManager;
+    
+    @Autowired
+    private CacheRedisTemplates cacheRedisTemplates;
+    
+    @Autowired
+    private CacheMetrics cacheMetrics;
+    
+    @Autowired
+    private CacheRegions cacheRegions;
+    
+    @Autowired
+    private CacheVersions cacheVersions;
+    
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+    
+    /**
+     * 每个方法的批量缓存元数据，只在第一次调用时反射解析
+     */
+    private final ConcurrentHashMap<Method, BatchOperation> operationCache = new ConcurrentHashMap<>();
+    
+    /**
+     * 按注解的copyStrategy拷贝缓存值，防止缓存污染
+     */
+    private final CacheValueCopier valueCopier = new CacheValueCopier();
+    
+    /**
+     * 方法级批量缓存元数据
+     * expireTime、useMemory、useRedis、redis 是合并了 cache.regions 区域配置后的值
+     */
+    private static final class BatchOperation {
+        private final MultiLevelCacheBatch annotation;
+        private final int keyArgIndex;
+        private final boolean setArgument;
+        private final CacheMetrics.Stats stats;
+        private final long expireTime;
+        private final boolean useMemory;
+        private final boolean useRedis;
+        private final RedisTemplate<String, Object> redis;
+        /**
+         * 返回对象类型 -> keyField的getter
+         */
+        private final ConcurrentHashMap<Class<?>, Method> keyGetters = new ConcurrentHashMap<>();
+        
+        private BatchOperation(MultiLevelCacheBatch annotation, int keyArgIndex, boolean setArgument, CacheMetrics.Stats stats,
+                               String region, CacheRegions regions, RedisTemplate<String, Object> redis) {
+            this.annotation = annotation;
+            this.keyArgIndex = keyArgIndex;
+            this.setArgument = setArgument;
+            this.stats = stats;
+            this.expireTime = regions.expireTime(region, annotation.expireTime());
+            this.useMemory = regions.useMemory(region, annotation.useMemory());
+            this.useRedis = regions.useRedis(region, annotation.useRedis());
+            this.redis = redis;
+        }
+    }
+    
+    /**
+     * 环绕通知，拦截@MultiLevelCacheBatch注解
+     */
+    @Around("@annotation(org.example.common.annotation.MultiLevelCacheBatch)")
+    public Object batchAround(ProceedingJoinPoint pjp) throws Throwable {
+        MethodSignature signature = (MethodSignature) pjp.getSignature();
+        BatchOperation operation = operationCache.computeIfAbsent(signature.getMethod(), this::compile);
+        MultiLevelCacheBatch cacheAnnotation = operation.annotation;
+        
+        Object[] args = pjp.getArgs();
+        Collection<?> rawKeys = (Collection<?>) args[operation.keyArgIndex];
+        if (rawKeys == null || rawKeys.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        // 去重并保持顺序：key -> 完整缓存key
+        Map<String, String> cacheKeys = new LinkedHashMap<>();
+        for (Object rawKey : rawKeys) {
+            if (rawKey != null) {
+                String key = String.valueOf(rawKey);
+                cacheKeys.put(key, buildCacheKey(cacheAnnotation.prefix(), key));
+            }
+        }
+        Map<String, Object> found = new HashMap<>(Math.max(16, cacheKeys.size() * 4 / 3 + 1));
+        List<String> missing = new ArrayList<>(cacheKeys.keySet());
+        // 读取之前记下删除序号和版本号，回写时据此放弃期间被更新或删除的key
+        long token = memoryCacheManager.invalidationToken();
+        Map<String, CacheVersions.Stamp> stamps = new HashMap<>();
+        boolean redisAvailable = operation.useRedis;
+        log.info("【批量缓存查询】开始查询，prefix={}, key数量={}", cacheAnnotation.prefix(), missing.size());
+        
+        // ==================== 第一层：内存缓存批量查询 ====================
+        if (operation.useMemory) {
+            List<String> memoryKeys = new ArrayList<>(missing.size());
+            for (String key : missing) {
+                memoryKeys.add(cacheKeys.get(key));
+            }
+            Map<String, Object> memoryHits = memoryCacheManager.getAll(memoryKeys);
+            List<String> stillMissing = new ArrayList<>();
+            for (String key : missing) {
+                Object memoryData = memoryHits.get(cacheKeys.get(key));
+                if (memoryData == null) {
+                    operation.stats.recordL1Miss();
+                    stillMissing.add(key);
+                } else {
+                    operation.stats.recordL1Hit();
+                    found.put(key, memoryData instanceof NullValue ? memoryData : fromMemory(cacheAnnotation, memoryData));
+                }
+            }
+            missing = stillMissing;
+            log.info("【批量缓存查询】内存缓存命中{}个，剩余{}个", found.size(), missing.size());
+        }
+        
+        // ==================== 第二层：Redis MGET ====================
+        if (operation.useRedis && !missing.isEmpty()) {
+            List<String> redisKeys = new ArrayList<>(missing.size());
+            for (String key : missing) {
+                redisKeys.add(cacheKeys.get(key));
+            }
+            List<CacheVersions.Versioned> redisValues = redisCircuitBreaker.execute(
+                () -> cacheVersions.multiGet(operation.redis, redisKeys), null);
+            List<String> stillMissing = new ArrayList<>();
+            int redisHits = 0;
+            if (redisValues == null) {
+                // Redis熔断或超时：全部当作未命中，没有版本号也就不回写Redis
+                redisAvailable = false;
+                stillMissing.addAll(missing);
+                log.info("【批量缓存查询】Redis不可用（熔断器{}），跳过Redis", redisCircuitBreaker.getState());
+            }
+            for (int i = 0; redisValues != null && i < missing.size(); i++) {
+                String key = missing.get(i);
+                CacheVersions.Versioned versioned = redisValues.get(i);
+                Object redisData = versioned.getValue();
+                if (redisData == null) {
+                    operation.stats.recordRedisMiss();
+                    stillMissing.add(key);
+                    stamps.put(key, versioned.getStamp());
+                    continue;
+                }
+                operation.stats.recordRedisHit();
+                redisHits++;
+                if (operation.useMemory) {
+                    long ttl = redisData instanceof NullValue ? cacheAnnotation.nullExpireTime() : operation.expireTime;
+                    putMemory(cacheAnnotation, cacheKeys.get(key), redisData, jitteredTtl(cacheAnnotation, ttl),
+                        versioned.getStamp().getVersion(), token);
+                    if (!(redisData instanceof NullValue) && valueCopier.sharesMemoryReference(cacheAnnotation.copyStrategy())
+                            && !memoryCacheManager.isOffHeap()) {
+                        redisData = valueCopier.copy(cacheAnnotation.copyStrategy(), redisData);
+                    }
+                }
+                found.put(key, redisData);
+            }
+            missing = stillMissing;
+            log.info("【批量缓存查询】Redis缓存命中{}个，剩余{}个", redisHits, missing.size());
+        }
+        
+        // ==================== 第三层：MySQL批量查询 ====================
+        if (!missing.isEmpty()) {
+            Map<String, Object> loaded = load(pjp, operation, args, missing);
+            backfill(operation, cacheKeys, missing, loaded, stamps, token, redisAvailable);
+            // 回写的内存缓存与返回值共享同一个对象时，返回拷贝
+            boolean copy = operation.useMemory && valueCopier.sharesMemoryReference(cacheAnnotation.copyStrategy())
+                && !memoryCacheManager.isOffHeap();
+            loaded.forEach((key, value) -> found.put(key, copy ? valueCopier.copy(cacheAnnotation.copyStrategy(), value) : value));
+        }
+        
+        // 按传入顺序组装结果，跳过不存在的key
+        List<Object> result = new ArrayList<>(cacheKeys.size());
+        for (String key : cacheKeys.keySet()) {
+            Object value = found.get(key);
+            if (value != null && !(value instanceof NullValue)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 用剩余的key调用原方法（超过loadBatchSize时分批），按keyField把结果映射回key
+     */
+    private Map<String, Object> load(ProceedingJoinPoint pjp, BatchOperation operation, Object[] args, List<String> missing) throws Throwable {
+        MultiLevelCacheBatch cacheAnnotation = operation.annotation;
+        int batchSize = Math.max(1, cacheAnnotation.loadBatchSize());
+        Map<String, Object> loaded = new HashMap<>(Math.max(16, missing.size() * 4 / 3 + 1));
+        for (int from = 0; from < missing.size(); from += batchSize) {
+            List<String> batch = missing.subList(from, Math.min(from + batchSize, missing.size()));
+            Object[] batchArgs = args.clone();
+            batchArgs[operation.keyArgIndex] = operation.setArgument ? new LinkedHashSet<>(batch) : new ArrayList<>(batch);
+            
+            log.info("【批量缓存查询】查询MySQL数据库，key数量={}", batch.size());
+            long loadStart = System.nanoTime();
+            Object dbData;
+            try {
+                dbData = pjp.proceed(batchArgs);
+            } catch (Throwable t) {
+                operation.stats.recordLoad(System.nanoTime() - loadStart, false);
+                throw t;
+            }
+            operation.stats.recordLoad(System.nanoTime() - loadStart, true);
+            
+            if (dbData instanceof Collection) {
+                for (Object element : (Collection<?>) dbData) {
+                    if (element != null) {
+                        loaded.put(String.valueOf(readKey(operation, element)), element);
+                    }
+                }
+            }
+        }
+        log.info("【批量缓存查询】MySQL查询成功，查到{}个，不存在{}个", loaded.size(), missing.size() - loaded.size());
+        return loaded;
+    }
+    
+    /**
+     * 用一次pipeline把查询结果（和不存在key的空值标记）写回Redis，再写入内存缓存
+     * 每个key单独计算抖动，批量写入的缓存不会在同一秒过期
+     * Redis拒绝写入的key（版本号已变）也不写内存缓存
+     * @param writeRedis 读取时Redis可用（拿到了版本号）才回写Redis
+     */
+    private void backfill(BatchOperation operation, Map<String, String> cacheKeys, List<String> missing,
+                          Map<String, Object> loaded, Map<String, CacheVersions.Stamp> stamps, long token,
+                          boolean writeRedis) {
+        MultiLevelCacheBatch cacheAnnotation = operation.annotation;
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Long> ttls = new HashMap<>();
+        Map<String, CacheVersions.Stamp> keyStamps = new HashMap<>();
+        for (String key : missing) {
+            Object value = loaded.get(key);
+            if (value == null && !cacheAnnotation.cacheNull()) {
+                continue;
+            }
+            String cacheKey = cacheKeys.get(key);
+            long ttl = value == null ? cacheAnnotation.nullExpireTime() : operation.expireTime;
+            values.put(cacheKey, value == null ? NullValue.INSTANCE : value);
+            ttls.put(cacheKey, jitteredTtl(cacheAnnotation, ttl));
+            keyStamps.put(cacheKey, stamps.getOrDefault(key, CacheVersions.Stamp.NONE));
+        }
+        if (values.isEmpty()) {
+            return;
+        }
+        
+        if (writeRedis) {
+            Map<String, byte[]> rawValues = new LinkedHashMap<>();
+            values.forEach((cacheKey, value) -> rawValues.put(cacheKey, CacheVersions.serialize(operation.redis, value)));
+            List<Object> results = redisCircuitBreaker.execute(() -> operation.redis.executePipelined((RedisCallback<Object>) connection -> {
+                rawValues.forEach((cacheKey, rawValue) ->
+                    cacheVersions.setIfCurrent(connection, cacheKey, rawValue, ttls.get(cacheKey), keyStamps.get(cacheKey)));
+                return null;
+            }), null);
+            if (results == null) {
+                log.warn("【批量缓存查询】Redis不可用，跳过回写Redis，key数量={}", rawValues.size());
+            } else {
+                // 结果为0的key期间已被更新或删除，内存缓存也不写
+                int index = 0;
+                for (String cacheKey : rawValues.keySet()) {
+                    Object written = index < results.size() ? results.get(index) : null;
+                    index++;
+                    if (written instanceof Long && !cacheVersions.accepted(cacheKey, (Long) written == 1L)) {
+                        values.remove(cacheKey);
+                    }
+                }
+                log.info("【批量缓存查询】pipeline回写Redis缓存{}个", values.size());
+            }
+        }
+        
+        if (operation.useMemory) {
+            values.forEach((cacheKey, value) -> putMemory(cacheAnnotation, cacheKey, value, ttls.get(cacheKey),
+                keyStamps.get(cacheKey).getVersion(), token));
+            log.info("【批量缓存查询】回写内存缓存{}个", values.size());
+        }
+    }
+    
+    /**
+     * 解析方法：定位key集合参数，校验返回类型
+     */
+    private BatchOperation compile(Method method) {
+        MultiLevelCacheBatch annotation = method.getAnnotation(MultiLevelCacheBatch.class);
+        if (!method.getReturnType().isAssignableFrom(ArrayList.class)) {
+            throw new IllegalStateException("@MultiLevelCacheBatch 方法的返回类型必须是List或Collection: " + method);
+        }
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (Collection.class.isAssignableFrom(parameterTypes[i])) {
+                String name = annotation.prefix().isEmpty() ? "default" : annotation.prefix();
+                return new BatchOperation(annotation, i, Set.class.isAssignableFrom(parameterTypes[i]),
+                    cacheMetrics.forName(name), name, cacheRegions, cacheRedisTemplates.forRegion(name));
+            }
+        }
+        throw new IllegalStateException("@MultiLevelCacheBatch 方法必须有一个Collection类型的key参数: " + method);
+    }
+    
+    /**
+     * 读取返回对象的keyField属性
+     */
+    private Object readKey(BatchOperation operation, Object element) throws ReflectiveOperationException {
+        Method getter = operation.keyGetters.computeIfAbsent(element.getClass(), type -> {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(type, operation.annotation.keyField());
+            if (descriptor == null || descriptor.getReadMethod() == null) {
+                throw new IllegalStateException("返回类型 " + type.getName() + " 没有属性: " + operation.annotation.keyField());
+            }
+            return descriptor.getReadMethod();
+        });
+        return getter.invoke(element);
+    }
+    
+    private static String buildCacheKey(String prefix, String key) {
+        return prefix.isEmpty() ? key : prefix + ":" + key;
+    }
+    
+    private long jitteredTtl(MultiLevelCacheBatch cacheAnnotation, long ttl) {
+        return TtlJitter.apply(ttl, cacheAnnotation.jitterPercent(), cacheAnnotation.jitterSeconds());
+    }
+    
+    /**
+     * 把内存缓存命中的值交给调用方（堆外模式下已经是新对象，不需要再拷贝）
+     */
+    private Object fromMemory(MultiLevelCacheBatch cacheAnnotation, Object memoryData) {
+        if (memoryCacheManager.isOffHeap() && !(memoryData instanceof CacheValueCopier.SerializedValue)) {
+            return memoryData;
+        }
+        return valueCopier.fromMemory(cacheAnnotation.copyStrategy(), memoryData);
+    }
+    
+    /**
+     * 按拷贝策略写入内存缓存，空值标记原样写入；读取之后被删除或更新过的key不写入
+     */
+    private void putMemory(MultiLevelCacheBatch cacheAnnotation, String cacheKey, Object value, long expireTime,
+                           long version, long token) {
+        Object stored = value instanceof NullValue ? value : valueCopier.toMemory(cacheAnnotation.copyStrategy(), value);
+        // 一次IN查询测不出单个key的耗时，准入用单key查询时记录的加载耗时
+        memoryCacheManager.putVersioned(cacheKey, stored, expireTime, version, token, false,
+            memoryCacheManager.loadCost(cacheKey));
+    }
+}
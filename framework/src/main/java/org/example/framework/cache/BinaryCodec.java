@@ -0,0 +1,495 @@
+package org.example.framework.cache;
+
+import org.springframework.cache.support.NullValue;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 紧凑二进制编码
+ * <p>
+ * 格式：[0xC0][版本][值]，每个值以1字节类型标记开头，整数用zigzag变长编码，字符串为长度+UTF-8。
+ * 对象必须先用 {@link #register(int, Class, String...)} 登记类型id和字段顺序，写入时只写类型id和字段编号，
+ * 不写类名和字段名。
+ * 登记时必须列出类中每个非static、非transient字段，漏列的字段直接报错（否则缓存的对象会悄悄丢值）。
+ * 字段按 (编号, 值) 写入，以0结尾，为null的字段不写：
+ * <ul>
+ *     <li>新增字段：追加到登记列表末尾，旧数据读出时该字段为默认值</li>
+ *     <li>删除字段：登记列表中该位置改为null占位，编号不能复用，读到时跳过</li>
+ *     <li>数值字段在 int/long/double 之间变更类型时自动转换</li>
+ * </ul>
+ * 未登记的类型、数组、枚举等不支持的值编码时抛出 {@link IllegalArgumentException}，由调用方降级为JSON。
+ */
+public class BinaryCodec {
+
+    /**
+     * 二进制值的头字节（UTF-8中不可能出现，JSON也不会以它开头）
+     */
+    public static final byte HEADER = (byte) 0xC0;
+
+    private static final byte VERSION = 1;
+
+    private static final byte NULL = 0;
+    private static final byte NULL_VALUE = 1;
+    private static final byte STRING = 2;
+    private static final byte INT = 3;
+    private static final byte LONG = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte DOUBLE = 7;
+    private static final byte LIST = 8;
+    private static final byte SET = 9;
+    private static final byte MAP = 10;
+    private static final byte OBJECT = 11;
+    private static final byte DATE = 12;
+    private static final byte BYTES = 13;
+    private static final byte DECIMAL = 14;
+
+    /**
+     * 登记的类型：构造器 + 按编号排列的字段（下标 = 编号 - 1，null为已删除的编号）
+     */
+    private static final class TypeInfo {
+        private final int typeId;
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+
+        private TypeInfo(int typeId, Constructor<?> constructor, Field[] fields) {
+            this.typeId = typeId;
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, TypeInfo> typesByClass = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, TypeInfo> typesById = new ConcurrentHashMap<>();
+
+    /**
+     * 登记类型
+     *
+     * @param typeId 类型id，全局唯一且不能变更（大于0）
+     * @param type 类型，需要无参构造器
+     * @param fields 字段名，按编号顺序排列；已删除的字段用null占位
+     * @throws IllegalArgumentException 类中有未登记的非static、非transient字段
+     */
+    public void register(int typeId, Class<?> type, String... fields) {
+        if (typeId <= 0) {
+            throw new IllegalArgumentException("类型id必须大于0: " + typeId);
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            Field[] resolved = new Field[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] != null) {
+                    resolved[i] = findField(type, fields[i]);
+                }
+            }
+            List<String> unlisted = unlistedFields(type, resolved);
+            if (!unlisted.isEmpty()) {
+                throw new IllegalArgumentException("类型 " + type.getName() + " 有未登记的字段: " + unlisted
+                    + "，请追加到登记列表末尾（不需要缓存的字段标记为transient）");
+            }
+            TypeInfo info = new TypeInfo(typeId, constructor, resolved);
+            TypeInfo existing = typesById.putIfAbsent(typeId, info);
+            if (existing != null) {
+                throw new IllegalStateException("类型id重复: " + typeId);
+            }
+            typesByClass.put(type, info);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException("类型缺少无参构造器: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 编码
+     * @throws IllegalArgumentException 值中包含不支持的类型
+     */
+    public byte[] encode(Object value) {
+        Output out = new Output();
+        out.writeByte(HEADER);
+        out.writeByte(VERSION);
+        writeValue(out, value);
+        return out.toByteArray();
+    }
+
+    /**
+     * 解码
+     * @throws IllegalArgumentException 数据损坏或包含未登记的类型id
+     */
+    public Object decode(byte[] bytes) {
+        if (bytes.length < 2 || bytes[0] != HEADER) {
+            throw new IllegalArgumentException("不是二进制编码的数据");
+        }
+        if (bytes[1] != VERSION) {
+            throw new IllegalArgumentException("不支持的二进制编码版本: " + bytes[1]);
+        }
+        Input in = new Input(bytes, 2);
+        try {
+            return readValue(in);
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("二进制数据不完整", e);
+        }
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String) {
+            out.writeByte(STRING);
+            out.writeBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof Integer) {
+            out.writeByte(INT);
+            out.writeVarLong(zigzag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(LONG);
+            out.writeVarLong(zigzag((Long) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte((Boolean) value ? TRUE : FALSE);
+        } else if (value instanceof Double) {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToRawLongBits((Double) value));
+        } else if (value instanceof NullValue) {
+            out.writeByte(NULL_VALUE);
+        } else if (value instanceof List) {
+            out.writeByte(LIST);
+            writeElements(out, (List<?>) value);
+        } else if (value instanceof Set) {
+            out.writeByte(SET);
+            writeElements(out, (Set<?>) value);
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeByte(MAP);
+            out.writeVarLong(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, entry.getKey());
+                writeValue(out, entry.getValue());
+            }
+        } else if (value instanceof Date && value.getClass() == Date.class) {
+            out.writeByte(DATE);
+            out.writeVarLong(zigzag(((Date) value).getTime()));
+        } else if (value instanceof byte[]) {
+            out.writeByte(BYTES);
+            out.writeBytes((byte[]) value);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL);
+            out.writeBytes(((BigDecimal) value).toString().getBytes(StandardCharsets.UTF_8));
+        } else {
+            writeObject(out, value);
+        }
+    }
+
+    private void writeElements(Output out, Collection<?> elements) {
+        out.writeVarLong(elements.size());
+        for (Object element : elements) {
+            writeValue(out, element);
+        }
+    }
+
+    private void writeObject(Output out, Object value) {
+        TypeInfo info = typesByClass.get(value.getClass());
+        if (info == null) {
+            throw new IllegalArgumentException("未登记的类型: " + value.getClass().getName());
+        }
+        out.writeByte(OBJECT);
+        out.writeVarLong(info.typeId);
+        try {
+            for (int i = 0; i < info.fields.length; i++) {
+                Field field = info.fields[i];
+                if (field == null) {
+                    continue;
+                }
+                Object fieldValue = field.get(value);
+                if (fieldValue != null) {
+                    out.writeVarLong(i + 1);
+                    writeValue(out, fieldValue);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("无法读取字段: " + value.getClass().getName(), e);
+        }
+        out.writeVarLong(0);
+    }
+
+    private Object readValue(Input in) {
+        byte tag = in.readByte();
+        switch (tag) {
+            case NULL:
+                return null;
+            case NULL_VALUE:
+                return NullValue.INSTANCE;
+            case STRING:
+                return new String(in.readBytes(), StandardCharsets.UTF_8);
+            case INT:
+                return (int) unzigzag(in.readVarLong());
+            case LONG:
+                return unzigzag(in.readVarLong());
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case DOUBLE:
+                return Double.longBitsToDouble(in.readLong());
+            case LIST: {
+                int size = in.readSize();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case SET: {
+                int size = in.readSize();
+                Set<Object> set = new LinkedHashSet<>(Math.max(16, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    set.add(readValue(in));
+                }
+                return set;
+            }
+            case MAP: {
+                int size = in.readSize();
+                Map<Object, Object> map = new LinkedHashMap<>(Math.max(16, size * 4 / 3 + 1));
+                for (int i = 0; i < size; i++) {
+                    map.put(readValue(in), readValue(in));
+                }
+                return map;
+            }
+            case OBJECT:
+                return readObject(in);
+            case DATE:
+                return new Date(unzigzag(in.readVarLong()));
+            case BYTES:
+                return in.readBytes();
+            case DECIMAL:
+                return new BigDecimal(new String(in.readBytes(), StandardCharsets.UTF_8));
+            default:
+                throw new IllegalArgumentException("未知的类型标记: " + tag);
+        }
+    }
+
+    private Object readObject(Input in) {
+        int typeId = (int) in.readVarLong();
+        TypeInfo info = typesById.get(typeId);
+        if (info == null) {
+            throw new IllegalArgumentException("未登记的类型id: " + typeId);
+        }
+        try {
+            Object instance = info.constructor.newInstance();
+            int fieldId;
+            while ((fieldId = (int) in.readVarLong()) != 0) {
+                Object fieldValue = readValue(in);
+                // 新版本写入的字段或已删除的字段：值已读出，直接跳过
+                if (fieldId > info.fields.length || info.fields[fieldId - 1] == null) {
+                    continue;
+                }
+                Field field = info.fields[fieldId - 1];
+                Object coerced = coerce(fieldValue, field.getType());
+                if (coerced != null) {
+                    field.set(instance, coerced);
+                }
+            }
+            return instance;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("无法创建对象: " + info.constructor.getDeclaringClass().getName(), e);
+        }
+    }
+
+    /**
+     * 把读出的值转换为字段类型，无法转换时返回null（字段保持默认值）
+     */
+    private static Object coerce(Object value, Class<?> type) {
+        Class<?> boxed = box(type);
+        if (value == null || boxed.isInstance(value)) {
+            return value;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (boxed == Long.class) {
+                return number.longValue();
+            }
+            if (boxed == Integer.class) {
+                return number.intValue();
+            }
+            if (boxed == Double.class) {
+                return number.doubleValue();
+            }
+        }
+        if (value instanceof Collection && boxed.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>((Collection<?>) value);
+        }
+        if (value instanceof Collection && boxed.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>((Collection<?>) value);
+        }
+        return null;
+    }
+
+    private static Class<?> box(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == int.class) {
+            return Integer.class;
+        }
+        if (type == long.class) {
+            return Long.class;
+        }
+        if (type == double.class) {
+            return Double.class;
+        }
+        if (type == boolean.class) {
+            return Boolean.class;
+        }
+        return type;
+    }
+
+    /**
+     * 类中需要编码（非static、非transient）却没有登记的字段
+     */
+    private static List<String> unlistedFields(Class<?> type, Field[] listed) {
+        Set<Field> registered = new LinkedHashSet<>(Arrays.asList(listed));
+        List<String> unlisted = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()
+                        && !registered.contains(field)) {
+                    unlisted.add(field.getName());
+                }
+            }
+        }
+        return unlisted;
+    }
+
+    private static Field findField(Class<?> type, String name) {
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (field.getName().equals(name) && !Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    return field;
+                }
+            }
+        }
+        throw new IllegalArgumentException("类型 " + type.getName() + " 没有字段: " + name);
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 可增长的字节输出
+     */
+    private static final class Output {
+        private byte[] buffer = new byte[256];
+        private int position;
+
+        private void writeByte(int b) {
+            ensure(1);
+            buffer[position++] = (byte) b;
+        }
+
+        private void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                buffer[position++] = (byte) (value >>> shift);
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+    }
+
+    /**
+     * 字节输入
+     */
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        private Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        private byte readByte() {
+            return buffer[position++];
+        }
+
+        private long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("变长整数过长");
+        }
+
+        private long readLong() {
+            long result = 0;
+            for (int i = 0; i < 8; i++) {
+                result = (result << 8) | (buffer[position++] & 0xFF);
+            }
+            return result;
+        }
+
+        /**
+         * 读取集合/字节长度，并校验不超过剩余数据，防止损坏数据导致超大分配
+         */
+        private int readSize() {
+            long size = readVarLong();
+            if (size < 0 || size > buffer.length - position) {
+                throw new IllegalArgumentException("长度字段损坏: " + size);
+            }
+            return (int) size;
+        }
+
+        private byte[] readBytes() {
+            int length = readSize();
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * 二进制Redis值序列化器
+ * <p>
+ * 读取时按头字节区分：{@link BinaryCodec#HEADER} 开头的按二进制解码，其余交给JSON序列化器，
+ * 迁移期间Redis中的旧JSON值照常可读。写入时 writeBinary 为true才用二进制编码，
+ * 值中包含未登记的类型时整体降级写JSON。
+ */
+@Slf4j
+public class BinaryRedisSerializer implements RedisSerializer<Object> {
+
+    private final BinaryCodec codec;
+    private final RedisSerializer<Object> jsonSerializer;
+    private final boolean writeBinary;
+
+    /**
+     * @param codec 二进制编码（类型登记共享）
+     * @param jsonSerializer JSON序列化器
+     * @param writeBinary 写入时是否使用二进制编码
+     */
+    public BinaryRedisSerializer(BinaryCodec codec, RedisSerializer<Object> jsonSerializer, boolean writeBinary) {
+        this.codec = codec;
+        this.jsonSerializer = jsonSerializer;
+        this.writeBinary = writeBinary;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (writeBinary && value != null) {
+            try {
+                return codec.encode(value);
+            } catch (IllegalArgumentException e) {
+                log.debug("【二进制序列化】值无法二进制编码，降级为JSON，type={}, reason={}",
+                    value.getClass().getName(), e.getMessage());
+            }
+        }
+        return jsonSerializer.serialize(value);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != BinaryCodec.HEADER) {
+            return jsonSerializer.deserialize(bytes);
+        }
+        try {
+            return codec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException("二进制值解码失败: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.framework.cache;
+
+/**
+ * 二进制编码类型登记
+ * 业务模块实现该接口并注册为Bean，在 RedisTemplate 创建时登记需要二进制编码的类型
+ */
+@FunctionalInterface
+public interface BinaryTypeRegistrar {
+
+    void registerTypes(BinaryCodec codec);
+}
@@ -0,0 +1,57 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 布隆过滤器注册中心
+ * 按名称管理 {@link RedisBloomFilter}，供 @MultiLevelCache(bloomFilter = "...") 和业务代码共用
+ */
+@Component
+@Slf4j
+public class BloomFilterRegistry {
+
+    /**
+     * 布隆过滤器位图在Redis中的key前缀
+     */
+    public static final String BLOOM_KEY_PREFIX = "bloom:";
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${cache.bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${cache.bloom.fpp:0.01}")
+    private double fpp;
+
+    private final ConcurrentHashMap<String, RedisBloomFilter> filters = new ConcurrentHashMap<>();
+
+    /**
+     * 获取（不存在则创建）指定名称的布隆过滤器
+     */
+    public RedisBloomFilter getOrCreate(String name) {
+        return filters.computeIfAbsent(name,
+            n -> new RedisBloomFilter(stringRedisTemplate, BLOOM_KEY_PREFIX + n, expectedInsertions, fpp));
+    }
+
+    /**
+     * 判断值是否可能存在；Redis异常时放行，避免布隆过滤器故障拦截正常请求
+     */
+    public boolean mightContain(String name, String value) {
+        if (value == null) {
+            return true;
+        }
+        try {
+            return getOrCreate(name).mightContain(value);
+        } catch (RuntimeException e) {
+            log.warn("【布隆过滤器】查询失败，默认放行，name={}, error={}", name, e.getMessage());
+            return true;
+        }
+    }
+}
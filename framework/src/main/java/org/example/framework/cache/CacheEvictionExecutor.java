@@ -0,0 +1,277 @@
+package org.example.framework.cache;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存写路径执行器
+ * 供 @MultiLevelCacheEvict / @MultiLevelCachePut 使用：两级缓存的删除、写入，事务提交后执行，延时双删
+ */
+@Component
+@Slf4j
+public class CacheEvictionExecutor {
+
+    /**
+     * 按模式删除时每批SCAN/UNLINK的key数量
+     */
+    private static final int SCAN_BATCH_SIZE = 500;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private CacheRedisTemplates cacheRedisTemplates;
+
+    @Autowired
+    private MemoryCacheManager memoryCacheManager;
+
+    @Autowired
+    private CacheInvalidationBroadcaster cacheInvalidationBroadcaster;
+
+    @Autowired
+    private CacheWriteBehind cacheWriteBehind;
+
+    @Autowired
+    private CacheVersions cacheVersions;
+
+    @Autowired
+    private LettuceAsyncConnection lettuceAsyncConnection;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-delayed-evict");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 当前线程存在事务时在提交后执行，回滚则不执行；没有事务时立即执行
+     */
+    public void runAfterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    task.run();
+                }
+            });
+        } else {
+            task.run();
+        }
+    }
+
+    /**
+     * 删除两级缓存
+     * 此时数据库已经写入，Redis删除失败只记录日志（由延时双删或过期兜底），内存缓存的删除和广播照常执行
+     * @param keys 完整缓存key
+     * @param patterns 完整缓存key的通配符模式
+     */
+    public void evict(Collection<String> keys, Collection<String> patterns, boolean useMemory, boolean useRedis) {
+        // 先取消排队中的异步回写，否则删除之后旧值又会被写回
+        cacheWriteBehind.cancel(keys);
+        patterns.forEach(cacheWriteBehind::cancelMatching);
+        boolean redisDeleted = true;
+        try {
+            if (useRedis) {
+                if (!keys.isEmpty()) {
+                    cacheVersions.delete(keys);
+                }
+                for (String pattern : patterns) {
+                    deleteRedisPattern(pattern, SCAN_BATCH_SIZE, 0);
+                }
+            }
+        } catch (RuntimeException e) {
+            redisDeleted = false;
+            log.error("【缓存删除】删除Redis缓存失败，keys={}, patterns={}", keys, patterns, e);
+        } finally {
+            if (useMemory) {
+                // 先删Redis再删内存：其他节点收到广播后回源读到的已是删除后的状态
+                if (!keys.isEmpty()) {
+                    cacheInvalidationBroadcaster.invalidateAll(keys);
+                }
+                patterns.forEach(cacheInvalidationBroadcaster::invalidatePattern);
+            }
+        }
+        log.info("【缓存删除】已删除缓存，keys={}, patterns={}, Redis{}", keys, patterns, redisDeleted ? "成功" : "失败");
+    }
+
+    /**
+     * 按模式分批删除两级缓存，并通知所有节点删除匹配的内存缓存（管理接口的批量失效）
+     * @param batchSize 每批SCAN/UNLINK的key数量
+     * @param pauseMillis 每删除一批后暂停的时间（毫秒），避免长时间连续占用Redis
+     * @return Redis中删除的key数量
+     */
+    public long evictPattern(String pattern, int batchSize, long pauseMillis) {
+        cacheWriteBehind.cancelMatching(pattern);
+        long deleted = deleteRedisPattern(pattern, batchSize, pauseMillis);
+        cacheInvalidationBroadcaster.invalidatePattern(pattern);
+        log.info("【缓存删除】已按模式删除缓存，pattern={}", pattern);
+        return deleted;
+    }
+
+    /**
+     * 延时再删一次，清掉更新期间并发读请求回写的旧值
+     */
+    public void evictLater(Collection<String> keys, Collection<String> patterns, boolean useMemory, boolean useRedis, long delayMillis) {
+        List<String> keyCopy = new ArrayList<>(keys);
+        List<String> patternCopy = new ArrayList<>(patterns);
+        scheduler.schedule(() -> {
+            try {
+                evict(keyCopy, patternCopy, useMemory, useRedis);
+            } catch (RuntimeException e) {
+                log.error("【缓存删除】延时双删失败，keys={}, patterns={}", keyCopy, patternCopy, e);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 写入两级缓存：写Redis（版本号加一），通知所有节点删除旧的内存缓存，再写本节点内存缓存
+     * @param redisValue 写入Redis的值
+     * @param memoryValue 写入内存缓存的值（已按拷贝策略处理）
+     */
+    public void put(String key, Object redisValue, Object memoryValue, long ttl, boolean useMemory, boolean useRedis) {
+        cacheWriteBehind.cancel(key);
+        long version = 0;
+        if (useRedis) {
+            try {
+                version = cacheVersions.set(cacheRedisTemplates.forKey(key), key, redisValue, ttl);
+            } catch (RuntimeException e) {
+                // Redis中可能仍是旧值，内存缓存只删除不写入，下次读取时回源
+                log.error("【缓存更新】写入Redis失败，只删除内存缓存，key={}", key, e);
+                if (useMemory) {
+                    cacheInvalidationBroadcaster.invalidate(key);
+                }
+                return;
+            }
+        }
+        if (useMemory) {
+            cacheInvalidationBroadcaster.invalidate(key);
+            // 删除之后取序号：本次写入不会被自己的删除挡住，之后的删除和更高版本的写入仍会生效
+            long token = memoryCacheManager.invalidationToken();
+            memoryCacheManager.putVersioned(key, memoryValue, ttl, version, token, false);
+        }
+        log.info("【缓存更新】已写入缓存，key={}, 过期时间={}秒", key, ttl);
+    }
+
+    /**
+     * 用SCAN分批找出匹配的key并UNLINK（后台释放内存），不会像KEYS那样阻塞Redis
+     * @return 删除的key数量
+     */
+    public long deleteByPattern(String pattern) {
+        return deleteByPattern(pattern, SCAN_BATCH_SIZE, 0);
+    }
+
+    /**
+     * 用SCAN分批找出匹配的key，每批用一条UNLINK删除，批与批之间暂停 pauseMillis
+     * 需要暂停时在Lettuce共享连接上逐页SCAN和UNLINK，在调用线程上暂停，暂停期间不占用连接池的连接；
+     * 连接工厂不是Lettuce时不暂停
+     * 线程被中断时停止，返回已删除的数量
+     * @return 删除的key数量
+     */
+    public long deleteByPattern(String pattern, int batchSize, long pauseMillis) {
+        int size = Math.max(1, batchSize);
+        if (pauseMillis > 0 && lettuceAsyncConnection.isAvailable()) {
+            return deleteByPages(pattern, size, pauseMillis);
+        }
+        Long deleted = redisTemplate.execute((RedisCallback<Long>) connection -> {
+            long count = 0;
+            ScanOptions options = ScanOptions.scanOptions().match(pattern).count(size).build();
+            List<byte[]> batch = new ArrayList<>(size);
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() >= size) {
+                        count += unlink(connection, batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                count += unlink(connection, batch);
+            }
+            return count;
+        });
+        return deleted != null ? deleted : 0;
+    }
+
+    /**
+     * 逐页SCAN并UNLINK本页的key，每页之后暂停
+     */
+    private long deleteByPages(String pattern, int size, long pauseMillis) {
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(size);
+        ScanCursor cursor = ScanCursor.INITIAL;
+        long count = 0;
+        while (true) {
+            ScanCursor current = cursor;
+            KeyScanCursor<byte[]> page = lettuceAsyncConnection.execute(commands -> commands.scan(current, args)).join();
+            List<byte[]> keys = page.getKeys();
+            if (!keys.isEmpty()) {
+                Long unlinked = lettuceAsyncConnection.execute(commands -> commands.unlink(keys.toArray(new byte[0][]))).join();
+                count += unlinked != null ? unlinked : 0;
+            }
+            if (page.isFinished()) {
+                return count;
+            }
+            cursor = page;
+            if (!pause(pauseMillis)) {
+                log.warn("【缓存删除】按模式删除被中断，pattern={}, 已删除{}个", pattern, count);
+                return count;
+            }
+        }
+    }
+
+    /**
+     * 纪元加一让进行中的回写全部放弃；模式可能连纪元一起删掉，删完再加一次
+     */
+    private long deleteRedisPattern(String pattern, int batchSize, long pauseMillis) {
+        cacheVersions.advanceEpoch();
+        long deleted = deleteByPattern(pattern, batchSize, pauseMillis);
+        cacheVersions.advanceEpoch();
+        log.info("【缓存删除】按模式删除Redis缓存，pattern={}, 删除{}个", pattern, deleted);
+        return deleted;
+    }
+
+    /**
+     * @return false=线程被中断
+     */
+    private static boolean pause(long millis) {
+        if (millis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static long unlink(RedisConnection connection, List<byte[]> keys) {
+        Long count = connection.keyCommands().unlink(keys.toArray(new byte[0][]));
+        return count != null ? count : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.framework.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 内存缓存跨节点失效广播
+ * <p>
+ * 本节点删除内存缓存时立即生效，同时把key放进待发送集合（自动去重），
+ * 在一个很短的批量窗口后合并成一条消息通过Redis pub/sub发给其他节点，其他节点收到后删除自己的内存缓存。
+ * 批量更新时只会发出少量消息，不会刷爆频道。
+ * 消息为JSON {node, keys, patterns}，key和模式分开存放：key中含有换行或 pattern: 等内容时只会按字面删除这一个key，
+ * 不会被当成通配符模式。
+ */
+@Component
+@Slf4j
+public class CacheInvalidationBroadcaster implements MessageListener {
+
+    /**
+     * 失效消息频道
+     */
+    public static final String CHANNEL = "cache:invalidate";
+
+    /**
+     * 批量窗口（毫秒）：窗口内的失效请求合并发送
+     */
+    private static final long BATCH_WINDOW_MILLIS = 5;
+
+    /**
+     * 单条消息最多携带的key数量
+     */
+    private static final int MAX_KEYS_PER_MESSAGE = 500;
+
+    /**
+     * 失效消息
+     */
+    static final class Payload {
+        /** 发送方nodeId */
+        public String node;
+        /** 按key删除 */
+        public List<String> keys = new ArrayList<>();
+        /** 按通配符模式删除 */
+        public List<String> patterns = new ArrayList<>();
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MemoryCacheManager memoryCacheManager;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private CacheWriteBehind cacheWriteBehind;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    /**
+     * 本节点标识，用于忽略自己发出的消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 待广播的key和模式（天然去重）
+     */
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPatterns = ConcurrentHashMap.newKeySet();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean(false);
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-invalidation-broadcaster");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+        log.info("【缓存失效广播】已订阅频道{}，nodeId={}", CHANNEL, nodeId);
+    }
+
+    /**
+     * 删除本节点内存缓存，并通知其他节点删除
+     */
+    public void invalidate(String key) {
+        memoryCacheManager.remove(key);
+        pendingKeys.add(key);
+        scheduleFlush();
+    }
+
+    /**
+     * 批量删除
+     */
+    public void invalidateAll(Iterable<String> keys) {
+        for (String key : keys) {
+            memoryCacheManager.remove(key);
+            pendingKeys.add(key);
+        }
+        scheduleFlush();
+    }
+
+    /**
+     * 按通配符模式删除本节点内存缓存，并通知其他节点删除
+     */
+    public void invalidatePattern(String pattern) {
+        memoryCacheManager.removeMatching(pattern);
+        pendingPatterns.add(pattern);
+        scheduleFlush();
+    }
+
+    /**
+     * 收到其他节点的失效消息
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Payload payload;
+        try {
+            payload = objectMapper.readValue(message.getBody(), Payload.class);
+        } catch (IOException e) {
+            log.warn("【缓存失效广播】无法解析的失效消息，已忽略：{}", new String(message.getBody(), StandardCharsets.UTF_8));
+            return;
+        }
+        if (payload.node == null || nodeId.equals(payload.node)) {
+            return;
+        }
+        // 其他节点已更新或删除了这些key，本节点排队中的回写是旧值，一并取消
+        for (String key : payload.keys) {
+            cacheWriteBehind.cancel(key);
+            memoryCacheManager.remove(key);
+        }
+        for (String keyPattern : payload.patterns) {
+            cacheWriteBehind.cancelMatching(keyPattern);
+            memoryCacheManager.removeMatching(keyPattern);
+        }
+        log.debug("【缓存失效广播】收到节点{}的失效消息，删除{}个key、{}个模式", payload.node,
+            payload.keys.size(), payload.patterns.size());
+    }
+
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::flush, BATCH_WINDOW_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 把待发送的key和模式合并成消息发出
+     */
+    private void flush() {
+        // 先清标记再取数据，保证flush期间新加入的key会触发下一次flush
+        flushScheduled.set(false);
+        Payload batch = newPayload();
+        batch.patterns.addAll(drain(pendingPatterns));
+        Iterator<String> iterator = pendingKeys.iterator();
+        while (iterator.hasNext()) {
+            batch.keys.add(iterator.next());
+            iterator.remove();
+            if (batch.keys.size() >= MAX_KEYS_PER_MESSAGE) {
+                publish(batch);
+                batch = newPayload();
+            }
+        }
+        if (!batch.keys.isEmpty() || !batch.patterns.isEmpty()) {
+            publish(batch);
+        }
+    }
+
+    private Payload newPayload() {
+        Payload payload = new Payload();
+        payload.node = nodeId;
+        return payload;
+    }
+
+    private static List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>();
+        Iterator<String> iterator = pending.iterator();
+        while (iterator.hasNext()) {
+            drained.add(iterator.next());
+            iterator.remove();
+        }
+        return drained;
+    }
+
+    private void publish(Payload payload) {
+        int count = payload.keys.size() + payload.patterns.size();
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(payload));
+            log.debug("【缓存失效广播】已广播{}个key、{}个模式", payload.keys.size(), payload.patterns.size());
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.error("【缓存失效广播】广播失败，其他节点的内存缓存将在过期后失效，key数量={}", count, e);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example.framework.cache;
+
+import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 按前缀查看和批量失效缓存key（供管理接口使用）
+ * <p>
+ * 只用SCAN按游标遍历，不使用KEYS；需要连续遍历多页时每页之间暂停 pause-millis，避免长时间占用Redis。
+ * 抽样时对每页的key同时发送PTTL和MEMORY USAGE异步命令，由Lettuce在同一条连接上流水线发送。
+ * 批量失效交给 {@link CacheEvictionExecutor#evictPattern} 分批UNLINK并通知所有节点删除匹配的内存缓存，同一时间只执行一个。
+ * 前缀按字面匹配，不能包含通配符，也不能为空（会匹配所有key）。
+ * 会匹配到内部key（版本号和纪元、加载租约等分布式锁、布隆过滤器位图）的前缀一律拒绝，删掉它们会让版本校验和互斥失效。
+ * 分页游标即Redis返回的游标，只适用于单机和哨兵模式。
+ */
+@Component
+@Slf4j
+public class CacheKeyScanner {
+
+    /**
+     * 内部key的前缀：版本号（含纪元 ver:~epoch）、分布式锁（含加载租约 lock:load:）、布隆过滤器位图
+     */
+    private static final List<String> RESERVED_PREFIXES =
+        List.of(CacheVersions.VERSION_PREFIX, "lock:", BloomFilterRegistry.BLOOM_KEY_PREFIX);
+
+    @Autowired
+    private LettuceAsyncConnection lettuceAsyncConnection;
+
+    @Autowired
+    private CacheEvictionExecutor cacheEvictionExecutor;
+
+    /**
+     * 抽样和批量失效时每次SCAN/UNLINK的key数量
+     */
+    @Value("${cache.admin.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache.admin.pause-millis:20}")
+    private long pauseMillis;
+
+    private final AtomicBoolean invalidating = new AtomicBoolean(false);
+
+    /**
+     * 列出一页匹配前缀的key
+     * @param cursor 上一页返回的游标，首页传0
+     * @param count SCAN的COUNT，只是提示，返回的key可能更多、更少或为空
+     * @return 下一页游标（遍历结束时为0）和本页的key
+     */
+    public Map<String, Object> scan(String prefix, String cursor, int count) {
+        String pattern = toPattern(prefix);
+        KeyScanCursor<byte[]> page = scanPage(pattern, ScanCursor.of(cursor), count);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pattern", pattern);
+        result.put("cursor", page.isFinished() ? ScanCursor.INITIAL.getCursor() : page.getCursor());
+        result.put("finished", page.isFinished());
+        result.put("keys", toStrings(page.getKeys()));
+        return result;
+    }
+
+    /**
+     * 从头遍历匹配前缀的key，取前 limit 个查询剩余过期时间和内存占用
+     * @return 每个key的 ttlMillis（-1表示不过期，-2表示已不存在）、bytes（-1表示无法获取），以及汇总
+     */
+    public Map<String, Object> sample(String prefix, int limit) {
+        String pattern = toPattern(prefix);
+        List<Map<String, Object>> samples = new ArrayList<>();
+        long totalBytes = 0;
+        long maxBytes = 0;
+        long persistent = 0;
+        ScanCursor cursor = ScanCursor.INITIAL;
+        boolean finished = false;
+        while (samples.size() < limit) {
+            KeyScanCursor<byte[]> page = scanPage(pattern, cursor, Math.min(batchSize, limit - samples.size()));
+            List<byte[]> keys = page.getKeys().subList(0, Math.min(page.getKeys().size(), limit - samples.size()));
+            List<CompletableFuture<Long>> ttls = new ArrayList<>(keys.size());
+            List<CompletableFuture<Long>> sizes = new ArrayList<>(keys.size());
+            for (byte[] key : keys) {
+                ttls.add(lettuceAsyncConnection.execute(commands -> commands.pttl(key)));
+                // MEMORY USAGE 可能被禁用，此时只缺少大小
+                sizes.add(lettuceAsyncConnection.execute(commands -> commands.memoryUsage(key))
+                    .exceptionally(error -> null));
+            }
+            for (int i = 0; i < keys.size(); i++) {
+                Long ttl = ttls.get(i).join();
+                Long bytes = sizes.get(i).join();
+                Map<String, Object> sample = new LinkedHashMap<>();
+                sample.put("key", new String(keys.get(i), StandardCharsets.UTF_8));
+                sample.put("ttlMillis", ttl);
+                sample.put("bytes", bytes != null ? bytes : -1L);
+                samples.add(sample);
+                if (bytes != null) {
+                    totalBytes += bytes;
+                    maxBytes = Math.max(maxBytes, bytes);
+                }
+                if (ttl != null && ttl == -1) {
+                    persistent++;
+                }
+            }
+            if (page.isFinished()) {
+                finished = true;
+                break;
+            }
+            cursor = page;
+            if (!pause()) {
+                break;
+            }
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("pattern", pattern);
+        result.put("sampled", samples.size());
+        // true表示已遍历完，sampled就是匹配的key总数
+        result.put("complete", finished);
+        result.put("totalBytes", totalBytes);
+        result.put("avgBytes", samples.isEmpty() ? 0 : totalBytes / samples.size());
+        result.put("maxBytes", maxBytes);
+        result.put("persistent", persistent);
+        result.put("keys", samples);
+        return result;
+    }
+
+    /**
+     * 批量失效匹配前缀的两级缓存，所有节点的内存缓存一并删除
+     * @return 执行结果；已有批量失效在执行时返回null
+     */
+    public Map<String, Object> invalidate(String prefix) {
+        String pattern = toPattern(prefix);
+        if (!invalidating.compareAndSet(false, true)) {
+            log.warn("【缓存删除】已有批量失效在执行，忽略本次请求，pattern={}", pattern);
+            return null;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            long deleted = cacheEvictionExecutor.evictPattern(pattern, batchSize, pauseMillis);
+            long costMillis = System.currentTimeMillis() - start;
+            log.info("【缓存删除】批量失效完成，pattern={}, 删除{}个, 耗时{}ms", pattern, deleted, costMillis);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("pattern", pattern);
+            result.put("deleted", deleted);
+            result.put("costMillis", costMillis);
+            return result;
+        } finally {
+            invalidating.set(false);
+        }
+    }
+
+    /**
+     * 前缀转为SCAN的匹配模式；内存缓存只支持 * 和 ? 通配符，前缀中不允许出现通配符和转义字符，两边按同样的字面含义匹配
+     */
+    static String toPattern(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            throw new IllegalArgumentException("缓存key前缀不能为空");
+        }
+        for (char c : prefix.toCharArray()) {
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                throw new IllegalArgumentException("缓存key前缀不能包含通配符：" + c);
+            }
+        }
+        for (String reserved : RESERVED_PREFIXES) {
+            // 前缀是内部前缀的开头（如 "v"）或以内部前缀开头，都会匹配到内部key
+            if (reserved.startsWith(prefix) || prefix.startsWith(reserved)) {
+                throw new IllegalArgumentException("缓存key前缀会匹配内部key（" + reserved + "*），不允许操作");
+            }
+        }
+        return prefix + "*";
+    }
+
+    private KeyScanCursor<byte[]> scanPage(String pattern, ScanCursor cursor, int count) {
+        if (!lettuceAsyncConnection.isAvailable()) {
+            throw new IllegalStateException("按前缀查看缓存key需要Lettuce连接");
+        }
+        ScanArgs args = ScanArgs.Builder.matches(pattern).limit(Math.max(1, count));
+        return lettuceAsyncConnection.execute(commands -> commands.scan(cursor, args)).join();
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static List<String> toStrings(List<byte[]> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        for (byte[] key : keys) {
+            result.add(new String(key, StandardCharsets.UTF_8));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.framework.cache;
+
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的缓存key模板
+ * <p>
+ * 每个方法只解析一次key表达式，按表达式形式选择最轻量的求值方式：
+ * <ul>
+ *     <li>不含#：固定key，直接返回</li>
+ *     <li>形如 #username：直接按参数下标取值，不经过SpEL</li>
+ *     <li>其他SpEL表达式：复用已解析（并尽量编译）的Expression</li>
+ * </ul>
+ */
+public final class CacheKeyTemplate {
+
+    /**
+     * 单个参数引用，例如 #username
+     */
+    private static final Pattern SIMPLE_PARAMETER = Pattern.compile("#[A-Za-z_$][A-Za-z0-9_$]*");
+
+    private enum Kind { LITERAL, PARAMETER, EXPRESSION }
+
+    private final Kind kind;
+    private final String prefix;
+    private final String literalKey;
+    private final int parameterIndex;
+    private final Expression expression;
+    private final String[] parameterNames;
+
+    private CacheKeyTemplate(Kind kind, String prefix, String literalKey, int parameterIndex,
+                             Expression expression, String[] parameterNames) {
+        this.kind = kind;
+        this.prefix = prefix;
+        this.literalKey = literalKey;
+        this.parameterIndex = parameterIndex;
+        this.expression = expression;
+        this.parameterNames = parameterNames;
+    }
+
+    /**
+     * 编译key模板
+     *
+     * @param prefix 缓存key前缀
+     * @param keyExpression key表达式
+     * @param parameterNames 方法参数名
+     * @param parser SpEL解析器
+     */
+    public static CacheKeyTemplate compile(String prefix, String keyExpression, String[] parameterNames, ExpressionParser parser) {
+        if (!keyExpression.contains("#")) {
+            return new CacheKeyTemplate(Kind.LITERAL, prefix, keyExpression, -1, null, parameterNames);
+        }
+        if (SIMPLE_PARAMETER.matcher(keyExpression).matches() && parameterNames != null) {
+            String name = keyExpression.substring(1);
+            for (int i = 0; i < parameterNames.length; i++) {
+                if (parameterNames[i].equals(name)) {
+                    return new CacheKeyTemplate(Kind.PARAMETER, prefix, null, i, null, parameterNames);
+                }
+            }
+        }
+        return new CacheKeyTemplate(Kind.EXPRESSION, prefix, null, -1, parser.parseExpression(keyExpression), parameterNames);
+    }
+
+    /**
+     * 解析缓存key（不含前缀）
+     */
+    public String resolveKey(Object[] args) {
+        switch (kind) {
+            case LITERAL:
+                return literalKey;
+            case PARAMETER:
+                return String.valueOf(args[parameterIndex]);
+            default:
+                EvaluationContext context = new StandardEvaluationContext();
+                for (int i = 0; i < parameterNames.length; i++) {
+                    context.setVariable(parameterNames[i], args[i]);
+                }
+                return expression.getValue(context, String.class);
+        }
+    }
+
+    /**
+     * 解析一组缓存key（不含前缀）：表达式结果是集合或数组时展开为多个key，null元素忽略
+     */
+    public List<String> resolveKeys(Object[] args) {
+        Object value;
+        switch (kind) {
+            case LITERAL:
+                return Collections.singletonList(literalKey);
+            case PARAMETER:
+                value = args[parameterIndex];
+                break;
+            default:
+                EvaluationContext context = new StandardEvaluationContext();
+                for (int i = 0; i < parameterNames.length; i++) {
+                    context.setVariable(parameterNames[i], args[i]);
+                }
+                value = expression.getValue(context);
+        }
+        List<String> keys = new ArrayList<>();
+        if (value instanceof Collection) {
+            for (Object element : (Collection<?>) value) {
+                if (element != null) {
+                    keys.add(String.valueOf(element));
+                }
+            }
+        } else if (value != null && value.getClass().isArray()) {
+            for (int i = 0; i < Array.getLength(value); i++) {
+                Object element = Array.get(value, i);
+                if (element != null) {
+                    keys.add(String.valueOf(element));
+                }
+            }
+        } else if (value != null) {
+            keys.add(String.valueOf(value));
+        }
+        return keys;
+    }
+
+    /**
+     * 缓存名称（统计指标按此分组）：有前缀用前缀，固定key用key本身，否则为default
+     */
+    public String cacheName() {
+        if (!prefix.isEmpty()) {
+            return prefix;
+        }
+        return kind == Kind.LITERAL ? literalKey : "default";
+    }
+
+    /**
+     * 拼接完整缓存key：前缀:key
+     */
+    public String buildCacheKey(String key) {
+        return prefix.isEmpty() ? key : prefix + ":" + key;
+    }
+}
@@ -0,0 +1,220 @@
+package org.example.framework.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多级缓存统计指标
+ * <p>
+ * 按缓存名称（注解的prefix）分组，分别统计内存和Redis两层的命中/未命中、布隆过滤器拦截、
+ * MySQL加载成功/失败及加载耗时分布、内存淘汰和过期次数。
+ * 计数全部使用LongAdder，热点路径上不加锁；同时注册到Micrometer的MeterRegistry，供监控系统采集。
+ */
+@Component
+@Slf4j
+public class CacheMetrics {
+
+    /**
+     * 无法归属到任何缓存名称的内存淘汰/过期
+     */
+    private static final String OTHER = "other";
+
+    @Autowired
+    private MemoryCacheManager memoryCacheManager;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistryProvider;
+
+    private final ConcurrentHashMap<String, Stats> statsByName = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    /**
+     * 单个缓存名称的统计
+     */
+    public static final class Stats {
+        private final String name;
+        private final LongAdder l1Hits = new LongAdder();
+        private final LongAdder l1Misses = new LongAdder();
+        private final LongAdder redisHits = new LongAdder();
+        private final LongAdder redisMisses = new LongAdder();
+        private final LongAdder bloomRejections = new LongAdder();
+        private final LongAdder loadSuccesses = new LongAdder();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+        private final LongAdder expirations = new LongAdder();
+        private final LatencyHistogram loadLatency = new LatencyHistogram();
+        private volatile Timer loadTimer;
+
+        private Stats(String name) {
+            this.name = name;
+        }
+
+        public void recordL1Hit() {
+            l1Hits.increment();
+        }
+
+        public void recordL1Miss() {
+            l1Misses.increment();
+        }
+
+        public void recordRedisHit() {
+            redisHits.increment();
+        }
+
+        public void recordRedisMiss() {
+            redisMisses.increment();
+        }
+
+        public void recordBloomRejection() {
+            bloomRejections.increment();
+        }
+
+        /**
+         * 记录一次MySQL加载
+         * @param nanos 加载耗时（纳秒）
+         * @param success 是否成功（抛异常为失败）
+         */
+        public void recordLoad(long nanos, boolean success) {
+            if (success) {
+                loadSuccesses.increment();
+            } else {
+                loadFailures.increment();
+            }
+            loadLatency.record(nanos);
+            Timer timer = loadTimer;
+            if (timer != null) {
+                timer.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new LinkedHashMap<>();
+            long l1Hit = l1Hits.sum();
+            long l1Miss = l1Misses.sum();
+            long redisHit = redisHits.sum();
+            long redisMiss = redisMisses.sum();
+            snapshot.put("l1Hits", l1Hit);
+            snapshot.put("l1Misses", l1Miss);
+            snapshot.put("l1HitRate", hitRate(l1Hit, l1Miss));
+            snapshot.put("redisHits", redisHit);
+            snapshot.put("redisMisses", redisMiss);
+            snapshot.put("redisHitRate", hitRate(redisHit, redisMiss));
+            snapshot.put("bloomRejections", bloomRejections.sum());
+            snapshot.put("loadSuccesses", loadSuccesses.sum());
+            snapshot.put("loadFailures", loadFailures.sum());
+            snapshot.put("evictions", evictions.sum());
+            snapshot.put("expirations", expirations.sum());
+            snapshot.put("loadLatency", loadLatency.snapshot());
+            return snapshot;
+        }
+
+        private static double hitRate(long hits, long misses) {
+            long total = hits + misses;
+            return total == 0 ? 0 : (double) hits / total;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        memoryCacheManager.setRemovalListener(this::onMemoryRemoval);
+        MeterRegistry meterRegistry = meterRegistryProvider.getIfAvailable();
+        if (meterRegistry != null) {
+            bindTo(meterRegistry);
+        }
+    }
+
+    /**
+     * 获取（不存在则创建）指定缓存名称的统计
+     */
+    public Stats forName(String name) {
+        Stats stats = statsByName.get(name);
+        if (stats != null) {
+            return stats;
+        }
+        stats = statsByName.computeIfAbsent(name, Stats::new);
+        MeterRegistry current = registry;
+        if (current != null) {
+            register(current, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * 所有缓存名称的统计快照
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        statsByName.forEach((name, stats) -> snapshot.put(name, stats.snapshot()));
+        return snapshot;
+    }
+
+    /**
+     * 注册到Micrometer，之后新出现的缓存名称也会自动注册
+     */
+    private void bindTo(MeterRegistry registry) {
+        this.registry = registry;
+        Gauge.builder("cache.size", memoryCacheManager, MemoryCacheManager::size)
+            .tag("tier", "l1")
+            .description("内存缓存条目数")
+            .register(registry);
+        statsByName.values().forEach(stats -> register(registry, stats));
+        log.info("【缓存统计】已注册到Micrometer，registry={}", registry.getClass().getSimpleName());
+    }
+
+    /**
+     * 内存缓存淘汰/过期回调：按key前缀（第一个冒号之前）归属到缓存名称
+     */
+    private void onMemoryRemoval(String key, MemoryCacheManager.RemovalCause cause) {
+        int index = key.indexOf(':');
+        String name = index > 0 ? key.substring(0, index) : key;
+        Stats stats = statsByName.get(name);
+        if (stats == null) {
+            stats = forName(OTHER);
+        }
+        if (cause == MemoryCacheManager.RemovalCause.SIZE) {
+            stats.evictions.increment();
+        } else {
+            stats.expirations.increment();
+        }
+    }
+
+    private void register(MeterRegistry registry, Stats stats) {
+        String name = stats.name;
+        counter(registry, "cache.gets", stats.l1Hits, name, "tier", "l1", "result", "hit");
+        counter(registry, "cache.gets", stats.l1Misses, name, "tier", "l1", "result", "miss");
+        counter(registry, "cache.gets", stats.redisHits, name, "tier", "redis", "result", "hit");
+        counter(registry, "cache.gets", stats.redisMisses, name, "tier", "redis", "result", "miss");
+        counter(registry, "cache.bloom.rejections", stats.bloomRejections, name);
+        counter(registry, "cache.loads", stats.loadSuccesses, name, "result", "success");
+        counter(registry, "cache.loads", stats.loadFailures, name, "result", "failure");
+        counter(registry, "cache.evictions", stats.evictions, name, "tier", "l1", "cause", "size");
+        counter(registry, "cache.evictions", stats.expirations, name, "tier", "l1", "cause", "expired");
+        stats.loadTimer = Timer.builder("cache.load.duration")
+            .tag("cache", name)
+            .description("缓存未命中时加载数据的耗时")
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String meterName, LongAdder adder, String cacheName, String... tags) {
+        FunctionCounter.builder(meterName, adder, LongAdder::sum)
+            .tag("cache", cacheName)
+            .tags(tags)
+            .register(registry);
+    }
+}
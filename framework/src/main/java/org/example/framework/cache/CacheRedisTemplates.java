@@ -0,0 +1,41 @@
+package org.example.framework.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * 按缓存区域选择写Redis用的RedisTemplate
+ * cache.regions.*.value-format 为 binary 的区域用二进制编码写入，其余写JSON；两者都能读取对方写入的值
+ */
+@Component
+public class CacheRedisTemplates {
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    @Qualifier("binaryRedisTemplate")
+    private RedisTemplate<String, Object> binaryRedisTemplate;
+
+    @Autowired
+    private CacheRegions cacheRegions;
+
+    /**
+     * 按区域名选择
+     */
+    public RedisTemplate<String, Object> forRegion(String region) {
+        CacheRegions.Region config = cacheRegions.find(region);
+        return config != null && config.getValueFormat() == CacheRegions.ValueFormat.BINARY
+            ? binaryRedisTemplate : redisTemplate;
+    }
+
+    /**
+     * 按完整缓存key选择（第一个冒号之前的部分为区域名，没有冒号时为整个key）
+     */
+    public RedisTemplate<String, Object> forKey(String cacheKey) {
+        int separator = cacheKey.indexOf(':');
+        return forRegion(separator < 0 ? cacheKey : cacheKey.substring(0, separator));
+    }
+}
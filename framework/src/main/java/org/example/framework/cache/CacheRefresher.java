@@ -0,0 +1,74 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存异步刷新器（refresh-ahead）
+ * 在有界线程池中执行刷新任务，同一个key同一时刻最多只有一个刷新任务；队列满时直接丢弃，下次命中再触发
+ */
+@Component
+@Slf4j
+public class CacheRefresher {
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * 正在刷新的key
+     */
+    private final Set<String> refreshingKeys = ConcurrentHashMap.newKeySet();
+
+    public CacheRefresher(@Value("${cache.refresh.threads:2}") int threads,
+                          @Value("${cache.refresh.queue-size:256}") int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueSize),
+            r -> {
+                Thread thread = new Thread(r, "cache-refresh-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 提交异步刷新
+     * @return true=已提交；false=该key正在刷新或线程池已满
+     */
+    public boolean refreshAsync(String key, Runnable task) {
+        if (!refreshingKeys.add(key)) {
+            return false;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.error("【缓存刷新】异步刷新失败，key={}", key, e);
+                } finally {
+                    refreshingKeys.remove(key);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            refreshingKeys.remove(key);
+            log.warn("【缓存刷新】刷新队列已满，本次跳过，key={}", key);
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
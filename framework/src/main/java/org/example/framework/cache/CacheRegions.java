@@ -0,0 +1,109 @@
+package org.example.framework.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 命名缓存区域配置（cache.regions.*）
+ * <p>
+ * 区域名与缓存名一致：@MultiLevelCache 的 prefix（没有prefix时为字面量key），
+ * 内存缓存按key中第一个冒号之前的部分归属区域。每个区域可以单独设置容量、过期时间、淘汰策略和使用哪几级缓存，
+ * 未配置的项沿用注解上的值；没有配置容量的区域和未配置的缓存共用 cache.memory.maximum-size 的默认容量。
+ */
+@Component
+@ConfigurationProperties(prefix = "cache")
+@Data
+public class CacheRegions {
+
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    /**
+     * Redis值的编码格式
+     */
+    public enum ValueFormat {
+        /** 带类名的JSON（GenericJackson2JsonRedisSerializer） */
+        JSON,
+        /** 紧凑二进制编码，类型需通过 {@link BinaryTypeRegistrar} 登记 */
+        BINARY
+    }
+
+    /**
+     * 单个区域的配置，为null的项表示不覆盖
+     */
+    @Data
+    public static class Region {
+        /**
+         * 内存缓存最大条目数
+         */
+        private Long maximumSize;
+        /**
+         * 内存缓存最大权重（字节，按序列化后的大小估算）
+         */
+        private Long maximumWeight;
+        /**
+         * 内存缓存淘汰策略
+         */
+        private EvictionPolicy.Type evictionPolicy = EvictionPolicy.Type.W_TINY_LFU;
+        /**
+         * 过期时间（秒），覆盖注解的expireTime
+         */
+        private Long expireTime;
+        /**
+         * 是否使用内存缓存，覆盖注解的useMemory
+         */
+        private Boolean useMemory;
+        /**
+         * 是否使用Redis缓存，覆盖注解的useRedis
+         */
+        private Boolean useRedis;
+        /**
+         * 是否异步回写，覆盖注解的writeBehind
+         */
+        private Boolean writeBehind;
+        /**
+         * 写入Redis的编码格式，读取时两种格式都支持
+         */
+        private ValueFormat valueFormat = ValueFormat.JSON;
+
+        /**
+         * 是否需要独立的内存容量
+         */
+        public boolean hasCapacity() {
+            return maximumSize != null && maximumSize > 0 || maximumWeight != null && maximumWeight > 0;
+        }
+    }
+
+    /**
+     * 查找区域配置，未配置返回null
+     */
+    public Region find(String name) {
+        return regions.get(name);
+    }
+
+    /**
+     * 区域配置了过期时间时返回区域的值，否则返回注解上的值
+     */
+    public long expireTime(String name, long annotationValue) {
+        Region region = regions.get(name);
+        return region != null && region.expireTime != null ? region.expireTime : annotationValue;
+    }
+
+    public boolean useMemory(String name, boolean annotationValue) {
+        Region region = regions.get(name);
+        return region != null && region.useMemory != null ? region.useMemory : annotationValue;
+    }
+
+    public boolean useRedis(String name, boolean annotationValue) {
+        Region region = regions.get(name);
+        return region != null && region.useRedis != null ? region.useRedis : annotationValue;
+    }
+
+    public boolean writeBehind(String name, boolean annotationValue) {
+        Region region = regions.get(name);
+        return region != null && region.writeBehind != null ? region.writeBehind : annotationValue;
+    }
+}
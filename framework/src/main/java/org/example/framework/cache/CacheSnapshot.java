@@ -0,0 +1,221 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 内存缓存快照文件
+ * <p>
+ * 文件格式：魔数(4) 版本(4) 生成时间(8) 条目数(4)，之后每个条目为
+ * key长度(4) key(UTF-8) 过期时间戳(8) 值长度(4) 值（{@link CacheValueCodec} 编码）。
+ * 写入时先写临时文件（内存映射）再原子替换；读取时只映射文件并建立 key -> 偏移 的索引，
+ * 值在第一次被访问时才反序列化（懒加载），取出后从索引中移除。
+ */
+@Slf4j
+public class CacheSnapshot {
+
+    private static final int MAGIC = 0x4C31534E;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+
+    /**
+     * 快照条目
+     */
+    public static final class Entry {
+        private final String key;
+        private final long expireTime;
+        private final byte[] value;
+
+        public Entry(String key, long expireTime, byte[] value) {
+            this.key = key;
+            this.expireTime = expireTime;
+            this.value = value;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getExpireTime() {
+            return expireTime;
+        }
+
+        public byte[] getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 条目在映射文件中的位置
+     */
+    private static final class Location {
+        private final int offset;
+        private final int length;
+        private final long expireTime;
+
+        private Location(int offset, int length, long expireTime) {
+            this.offset = offset;
+            this.length = length;
+            this.expireTime = expireTime;
+        }
+    }
+
+    private final MappedByteBuffer buffer;
+    private final ConcurrentHashMap<String, Location> index;
+    private final long createdAt;
+    private final long maxExpireTime;
+
+    private CacheSnapshot(MappedByteBuffer buffer, ConcurrentHashMap<String, Location> index, long createdAt, long maxExpireTime) {
+        this.buffer = buffer;
+        this.index = index;
+        this.createdAt = createdAt;
+        this.maxExpireTime = maxExpireTime;
+    }
+
+    /**
+     * 写入快照
+     * @return 文件字节数
+     */
+    public static long write(Path path, List<Entry> entries, long now) throws IOException {
+        long size = HEADER_SIZE;
+        int count = 0;
+        for (Entry entry : entries) {
+            long entrySize = 4L + entry.key.getBytes(StandardCharsets.UTF_8).length + 8 + 4 + entry.value.length;
+            if (size + entrySize > Integer.MAX_VALUE) {
+                log.warn("【内存缓存快照】快照超过2GB，只写入前{}个条目", count);
+                break;
+            }
+            size += entrySize;
+            count++;
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(MAGIC).putInt(VERSION).putLong(now).putInt(count);
+            for (int i = 0; i < count; i++) {
+                Entry entry = entries.get(i);
+                byte[] key = entry.key.getBytes(StandardCharsets.UTF_8);
+                out.putInt(key.length).put(key).putLong(entry.expireTime).putInt(entry.value.length).put(entry.value);
+            }
+            out.force();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return size;
+    }
+
+    /**
+     * 打开快照并建立索引
+     * @return 快照；文件不存在、格式不对或已超过最大年龄时返回null
+     */
+    public static CacheSnapshot open(Path path, long maxAgeMillis, long now) throws IOException {
+        if (!Files.isRegularFile(path) || Files.size(path) < HEADER_SIZE) {
+            return null;
+        }
+        MappedByteBuffer in;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            log.warn("【内存缓存快照】文件格式不匹配，忽略快照，path={}", path);
+            return null;
+        }
+        long createdAt = in.getLong();
+        if (now - createdAt > maxAgeMillis) {
+            log.info("【内存缓存快照】快照已生成{}秒，超过最大年龄，忽略", (now - createdAt) / 1000);
+            return null;
+        }
+        int count = in.getInt();
+        ConcurrentHashMap<String, Location> index = new ConcurrentHashMap<>(Math.max(16, count * 4 / 3 + 1));
+        long maxExpireTime = 0;
+        for (int i = 0; i < count; i++) {
+            byte[] key = new byte[in.getInt()];
+            in.get(key);
+            long expireTime = in.getLong();
+            int length = in.getInt();
+            int offset = in.position();
+            in.position(offset + length);
+            if (expireTime > now) {
+                index.put(new String(key, StandardCharsets.UTF_8), new Location(offset, length, expireTime));
+                maxExpireTime = Math.max(maxExpireTime, expireTime);
+            }
+        }
+        return new CacheSnapshot(in, index, createdAt, maxExpireTime);
+    }
+
+    /**
+     * 取出一个未过期的条目（只会成功一次）
+     */
+    public Entry take(String key, long now) {
+        Location location = index.remove(key);
+        if (location == null || location.expireTime <= now) {
+            return null;
+        }
+        return new Entry(key, location.expireTime, read(location));
+    }
+
+    /**
+     * 丢弃条目（key被重新写入或删除时调用，快照中的旧值不能再被加载）
+     */
+    public void discard(String key) {
+        index.remove(key);
+    }
+
+    /**
+     * 丢弃匹配模式的所有条目
+     */
+    public void discardMatching(Pattern pattern) {
+        index.keySet().removeIf(key -> pattern.matcher(key).matches());
+    }
+
+    /**
+     * 遍历尚未加载、仍未过期的条目（写新快照时带上，避免连续重启丢失还没访问到的数据）
+     */
+    public void forEachPending(long now, Consumer<Entry> consumer) {
+        index.forEach((key, location) -> {
+            if (location.expireTime > now) {
+                consumer.accept(new Entry(key, location.expireTime, read(location)));
+            }
+        });
+    }
+
+    /**
+     * 是否已没有可加载的条目
+     */
+    public boolean isExhausted(long now) {
+        return index.isEmpty() || now > maxExpireTime;
+    }
+
+    public int pendingCount() {
+        return index.size();
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    private byte[] read(Location location) {
+        byte[] bytes = new byte[location.length];
+        buffer.get(location.offset, bytes, 0, location.length);
+        return bytes;
+    }
+}
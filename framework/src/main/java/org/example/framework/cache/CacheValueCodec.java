@@ -0,0 +1,58 @@
+package org.example.framework.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 缓存值编解码
+ * 堆外存储和L1快照共用：首字节标记类型，普通对象用带类型信息的JSON，
+ * {@link CacheValueCopier.SerializedValue} 直接保存原始字节，避免二次序列化
+ */
+public class CacheValueCodec {
+
+    /**
+     * 字节头：普通对象（带类型信息的JSON）
+     */
+    private static final byte TYPE_OBJECT = 0;
+
+    /**
+     * 字节头：{@link CacheValueCopier.SerializedValue} 的原始字节
+     */
+    private static final byte TYPE_SERIALIZED = 1;
+
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .activateDefaultTyping(
+            new ObjectMapper().getPolymorphicTypeValidator(),
+            ObjectMapper.DefaultTyping.NON_FINAL
+        );
+
+    /**
+     * 编码
+     */
+    public byte[] encode(Object value) throws Exception {
+        byte[] body;
+        byte type;
+        if (value instanceof CacheValueCopier.SerializedValue) {
+            body = ((CacheValueCopier.SerializedValue) value).getBytes();
+            type = TYPE_SERIALIZED;
+        } else {
+            body = objectMapper.writeValueAsBytes(value);
+            type = TYPE_OBJECT;
+        }
+        byte[] bytes = new byte[body.length + 1];
+        bytes[0] = type;
+        System.arraycopy(body, 0, bytes, 1, body.length);
+        return bytes;
+    }
+
+    /**
+     * 解码
+     */
+    public Object decode(byte[] bytes) throws Exception {
+        if (bytes[0] == TYPE_SERIALIZED) {
+            byte[] body = new byte[bytes.length - 1];
+            System.arraycopy(bytes, 1, body, 0, body.length);
+            return new CacheValueCopier.SerializedValue(body);
+        }
+        return objectMapper.readValue(bytes, 1, bytes.length - 1, Object.class);
+    }
+}
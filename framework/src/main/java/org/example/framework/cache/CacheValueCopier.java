@@ -0,0 +1,116 @@
+package org.example.framework.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.common.annotation.CopyStrategy;
+
+/**
+ * 缓存值拷贝器
+ * 按 {@link CopyStrategy} 决定内存缓存中存什么、命中时怎么把值交给调用方，防止调用方修改缓存中的数据
+ */
+@Slf4j
+public class CacheValueCopier {
+
+    /**
+     * 内存缓存中预先序列化好的值（SERIALIZED策略）
+     */
+    public static final class SerializedValue {
+        private final byte[] bytes;
+
+        SerializedValue(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public byte[] getBytes() {
+            return bytes;
+        }
+    }
+
+    // 用于深拷贝的ObjectMapper（启用默认类型信息，保留泛型）
+    private final ObjectMapper objectMapper = new ObjectMapper()
+        .activateDefaultTyping(
+            new ObjectMapper().getPolymorphicTypeValidator(),
+            ObjectMapper.DefaultTyping.NON_FINAL
+        );
+
+    private final FieldCloner fieldCloner = new FieldCloner();
+
+    /**
+     * 转换为写入内存缓存的形式
+     * SERIALIZED策略存字节，序列化失败时退回存原对象
+     */
+    public Object toMemory(CopyStrategy strategy, Object value) {
+        if (strategy != CopyStrategy.SERIALIZED || value == null) {
+            return value;
+        }
+        try {
+            return new SerializedValue(objectMapper.writeValueAsBytes(value));
+        } catch (Exception e) {
+            log.warn("【缓存拷贝】预序列化失败，内存缓存保存原对象: {}", e.getMessage());
+            return value;
+        }
+    }
+
+    /**
+     * 内存缓存命中时，把缓存中的值转换为可以交给调用方的对象
+     */
+    public Object fromMemory(CopyStrategy strategy, Object stored) {
+        if (stored instanceof SerializedValue) {
+            try {
+                return objectMapper.readValue(((SerializedValue) stored).bytes, Object.class);
+            } catch (Exception e) {
+                throw new IllegalStateException("内存缓存反序列化失败", e);
+            }
+        }
+        return copy(strategy, stored);
+    }
+
+    /**
+     * 内存缓存是否与调用方共享同一个对象引用
+     * SERIALIZED策略下内存缓存只保存字节，Redis/MySQL拿到的对象可以直接返回
+     */
+    public boolean sharesMemoryReference(CopyStrategy strategy) {
+        return strategy != CopyStrategy.SERIALIZED;
+    }
+
+    /**
+     * 按策略拷贝对象
+     */
+    public Object copy(CopyStrategy strategy, Object source) {
+        if (source == null) {
+            return null;
+        }
+        switch (strategy) {
+            case NONE:
+                return source;
+            case FIELD_CLONE:
+                try {
+                    return fieldCloner.deepClone(source);
+                } catch (IllegalStateException e) {
+                    log.debug("【缓存拷贝】字段拷贝不支持，退回JSON深拷贝: {}", e.getMessage());
+                    return deepCopy(source);
+                }
+            default:
+                return deepCopy(source);
+        }
+    }
+
+    /**
+     * 深拷贝对象，防止缓存污染
+     * 使用JSON序列化/反序列化实现深拷贝
+     * 通过enableDefaultTyping保留类型信息，避免泛型丢失
+     */
+    public Object deepCopy(Object source) {
+        if (source == null) {
+            return null;
+        }
+        try {
+            // 序列化为JSON（包含类型信息），再反序列化为新对象
+            byte[] json = objectMapper.writeValueAsBytes(source);
+            return objectMapper.readValue(json, Object.class);
+        } catch (Exception e) {
+            log.warn("【深拷贝】深拷贝失败，返回原对象: {}", e.getMessage());
+            return source;  // 如果深拷贝失败，返回原对象
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package org.example.framework.cache;
+
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.ScriptOutputType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存条目版本号
+ * <p>
+ * 每个缓存key在Redis中有一个版本计数器 ver:<缓存key>（普通前缀，不是集群的hash tag），更新和删除（@MultiLevelCachePut / @MultiLevelCacheEvict）时加一；
+ * 按模式删除无法逐个加一，改为给全局纪元 ver:~epoch 加一。
+ * 回源的读请求在读取数据之前记下版本号和纪元（{@link Stamp}），回写Redis时用Lua脚本比较，
+ * 期间有过更新或删除就放弃回写，旧值不会覆盖更新后的值。内存缓存条目保存同一个版本号。
+ * 脚本和MGET同时访问缓存key、版本key和全局纪元，三者不在同一个slot，只适用于单机和哨兵模式；
+ * Redis Cluster下启动时自动关闭版本号（回写不做比较），避免每次回写都因CROSSSLOT失败。
+ */
+@Component
+@Slf4j
+public class CacheVersions {
+
+    public static final String VERSION_PREFIX = "ver:";
+
+    public static final String EPOCH_KEY = VERSION_PREFIX + "~epoch";
+
+    /**
+     * 版本号和纪元都没有变化才写入
+     * KEYS: 缓存key, 版本key, 纪元key；ARGV: 版本号, 纪元, 值, 过期时间（秒）
+     */
+    private static final String SET_IF_CURRENT_LUA =
+        "if (redis.call('get', KEYS[2]) or '0') ~= ARGV[1] or (redis.call('get', KEYS[3]) or '0') ~= ARGV[2] then "
+            + "return 0 end "
+            + "redis.call('set', KEYS[1], ARGV[3], 'EX', ARGV[4]) "
+            + "return 1";
+
+    /**
+     * 版本号加一后写入，返回新版本号
+     * KEYS: 缓存key, 版本key；ARGV: 值, 过期时间（秒）, 版本key过期时间（秒）
+     */
+    private static final String SET_AND_INCREMENT_LUA =
+        "local v = redis.call('incr', KEYS[2]) "
+            + "redis.call('expire', KEYS[2], ARGV[3]) "
+            + "redis.call('set', KEYS[1], ARGV[1], 'EX', ARGV[2]) "
+            + "return v";
+
+    /**
+     * 逐个版本号加一并删除
+     * KEYS: 缓存key1, 版本key1, 缓存key2, 版本key2...；ARGV: 版本key过期时间（秒）
+     */
+    private static final String DELETE_AND_INCREMENT_LUA =
+        "for i = 1, #KEYS, 2 do "
+            + "redis.call('incr', KEYS[i + 1]) "
+            + "redis.call('expire', KEYS[i + 1], ARGV[1]) "
+            + "redis.call('unlink', KEYS[i]) "
+            + "end "
+            + "return #KEYS / 2";
+
+    private static final RedisScript<Long> SET_IF_CURRENT = new DefaultRedisScript<>(SET_IF_CURRENT_LUA, Long.class);
+    private static final RedisScript<Long> SET_AND_INCREMENT = new DefaultRedisScript<>(SET_AND_INCREMENT_LUA, Long.class);
+    private static final RedisScript<Long> DELETE_AND_INCREMENT = new DefaultRedisScript<>(DELETE_AND_INCREMENT_LUA, Long.class);
+
+    private static final RedisSerializer<Long> LONG_SERIALIZER = new GenericToStringSerializer<>(Long.class);
+
+    private static final byte[] RAW_EPOCH_KEY = EPOCH_KEY.getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * 读取前记下的版本号和纪元
+     */
+    public static final class Stamp {
+        /**
+         * 未开启版本号时使用，写入不做比较
+         */
+        public static final Stamp NONE = new Stamp(0, 0);
+
+        private final long version;
+        private final long epoch;
+
+        private Stamp(long version, long epoch) {
+            this.version = version;
+            this.epoch = epoch;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+    }
+
+    /**
+     * 带版本号的读取结果
+     */
+    public static final class Versioned {
+        private final Object value;
+        private final long ttlMillis;
+        private final Stamp stamp;
+
+        private Versioned(Object value, long ttlMillis, Stamp stamp) {
+            this.value = value;
+            this.ttlMillis = ttlMillis;
+            this.stamp = stamp;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        /**
+         * 剩余过期时间（毫秒），没有查询时为-1
+         */
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public Stamp getStamp() {
+            return stamp;
+        }
+    }
+
+    @Value("${cache.version.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 版本key的过期时间（秒），要远大于一次回源的耗时
+     */
+    @Value("${cache.version.ttl-seconds:86400}")
+    private long versionTtlSeconds;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private LettuceAsyncConnection asyncConnection;
+
+    /**
+     * 因版本变化被放弃的回写次数
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    @PostConstruct
+    public void checkTopology() {
+        RedisConnectionFactory factory = redisTemplate.getConnectionFactory();
+        if (enabled && factory instanceof LettuceConnectionFactory && ((LettuceConnectionFactory) factory).isClusterAware()) {
+            enabled = false;
+            log.warn("【缓存版本】Redis Cluster下版本key与缓存key不在同一个slot，已关闭版本号校验");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * 用一次pipeline读取值、版本号和纪元（可选剩余过期时间）
+     */
+    public Versioned get(RedisTemplate<String, Object> redis, String key, boolean withTtl) {
+        if (!enabled && !withTtl) {
+            return new Versioned(redis.opsForValue().get(key), -1, Stamp.NONE);
+        }
+        byte[] rawKey = rawKey(key);
+        List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().get(rawKey);
+            if (withTtl) {
+                connection.keyCommands().pTtl(rawKey);
+            }
+            if (enabled) {
+                connection.stringCommands().mGet(rawKey(VERSION_PREFIX + key), RAW_EPOCH_KEY);
+            }
+            return null;
+        }, RedisSerializer.byteArray());
+        Object value = deserialize(redis, (byte[]) results.get(0));
+        long ttlMillis = withTtl && results.get(1) instanceof Long ? (Long) results.get(1) : -1;
+        if (!enabled) {
+            return new Versioned(value, ttlMillis, Stamp.NONE);
+        }
+        List<?> versions = (List<?>) results.get(results.size() - 1);
+        return new Versioned(value, ttlMillis, new Stamp(parse(versions.get(0)), parse(versions.get(1))));
+    }
+
+    /**
+     * 异步读取值、版本号和纪元（可选剩余过期时间），几个命令在同一条连接上一起发送
+     */
+    public CompletableFuture<Versioned> getAsync(RedisTemplate<String, Object> redis, String key, boolean withTtl) {
+        if (!asyncConnection.isAvailable()) {
+            return CompletableFuture.completedFuture(get(redis, key, withTtl));
+        }
+        byte[] rawKey = rawKey(key);
+        CompletableFuture<byte[]> value = asyncConnection.execute(commands -> commands.get(rawKey));
+        CompletableFuture<Long> ttl = withTtl
+            ? asyncConnection.execute(commands -> commands.pttl(rawKey))
+            : CompletableFuture.completedFuture(-1L);
+        CompletableFuture<Stamp> stamp = enabled ? stampAsync(key) : CompletableFuture.completedFuture(Stamp.NONE);
+        return CompletableFuture.allOf(value, ttl, stamp).thenApply(ignored -> {
+            Long ttlMillis = ttl.join();
+            return new Versioned(deserialize(redis, value.join()), ttlMillis != null ? ttlMillis : -1, stamp.join());
+        });
+    }
+
+    /**
+     * 异步读取当前版本号和纪元
+     */
+    public CompletableFuture<Stamp> stampAsync(String key) {
+        if (!enabled) {
+            return CompletableFuture.completedFuture(Stamp.NONE);
+        }
+        if (!asyncConnection.isAvailable()) {
+            return CompletableFuture.completedFuture(stamp(key));
+        }
+        return asyncConnection.execute(commands -> commands.mget(rawKey(VERSION_PREFIX + key), RAW_EPOCH_KEY))
+            .thenApply(versions -> new Stamp(parse(valueOf(versions.get(0))), parse(valueOf(versions.get(1)))));
+    }
+
+    /**
+     * 用一次pipeline批量读取值和版本号
+     */
+    public List<Versioned> multiGet(RedisTemplate<String, Object> redis, List<String> keys) {
+        List<Versioned> result = new ArrayList<>(keys.size());
+        if (!enabled) {
+            List<Object> values = redis.opsForValue().multiGet(keys);
+            for (int i = 0; i < keys.size(); i++) {
+                result.add(new Versioned(values != null ? values.get(i) : null, -1, Stamp.NONE));
+            }
+            return result;
+        }
+        byte[][] rawKeys = new byte[keys.size()][];
+        byte[][] rawVersionKeys = new byte[keys.size() + 1][];
+        for (int i = 0; i < keys.size(); i++) {
+            rawKeys[i] = rawKey(keys.get(i));
+            rawVersionKeys[i] = rawKey(VERSION_PREFIX + keys.get(i));
+        }
+        rawVersionKeys[keys.size()] = RAW_EPOCH_KEY;
+        List<Object> results = redis.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().mGet(rawKeys);
+            connection.stringCommands().mGet(rawVersionKeys);
+            return null;
+        }, RedisSerializer.byteArray());
+        List<?> values = (List<?>) results.get(0);
+        List<?> versions = (List<?>) results.get(1);
+        long epoch = parse(versions.get(keys.size()));
+        for (int i = 0; i < keys.size(); i++) {
+            result.add(new Versioned(deserialize(redis, (byte[]) values.get(i)), -1, new Stamp(parse(versions.get(i)), epoch)));
+        }
+        return result;
+    }
+
+    /**
+     * 读取当前版本号和纪元，回源前调用
+     */
+    public Stamp stamp(String key) {
+        if (!enabled) {
+            return Stamp.NONE;
+        }
+        List<byte[]> versions = redisTemplate.execute((RedisCallback<List<byte[]>>) connection ->
+            connection.stringCommands().mGet(rawKey(VERSION_PREFIX + key), RAW_EPOCH_KEY));
+        return versions != null ? new Stamp(parse(versions.get(0)), parse(versions.get(1))) : Stamp.NONE;
+    }
+
+    /**
+     * 回写：读取之后版本号和纪元都没有变化才写入
+     * @return false=期间有过更新或删除，放弃写入
+     */
+    public boolean setIfCurrent(RedisTemplate<String, Object> redis, String key, Object value, long ttl, Stamp stamp) {
+        if (!enabled) {
+            redis.opsForValue().set(key, value, ttl, TimeUnit.SECONDS);
+            return true;
+        }
+        Long written = redis.execute(SET_IF_CURRENT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+            List.of(key, VERSION_PREFIX + key, EPOCH_KEY),
+            number(stamp.version), number(stamp.epoch), serialize(redis, value), number(ttl));
+        return accepted(key, written != null && written == 1);
+    }
+
+    /**
+     * 异步回写：读取之后版本号和纪元都没有变化才写入
+     * 值在当前线程序列化，调用方之后修改对象不会影响写入的内容
+     * @return false=期间有过更新或删除，放弃写入
+     */
+    public CompletableFuture<Boolean> setIfCurrentAsync(RedisTemplate<String, Object> redis, String key, Object value,
+                                                        long ttl, Stamp stamp) {
+        if (!asyncConnection.isAvailable()) {
+            return CompletableFuture.completedFuture(setIfCurrent(redis, key, value, ttl, stamp));
+        }
+        byte[] rawKey = rawKey(key);
+        byte[] rawValue = serialize(redis, value);
+        if (!enabled) {
+            return asyncConnection.execute(commands -> commands.setex(rawKey, ttl, rawValue)).thenApply(ok -> true);
+        }
+        byte[][] keys = {rawKey, rawKey(VERSION_PREFIX + key), RAW_EPOCH_KEY};
+        return asyncConnection.<Long>execute(commands -> commands.eval(SET_IF_CURRENT_LUA, ScriptOutputType.INTEGER, keys,
+                number(stamp.version), number(stamp.epoch), rawValue, number(ttl)))
+            .thenApply(written -> accepted(key, written != null && written == 1));
+    }
+
+    /**
+     * 在pipeline中追加一次回写（结果在pipeline返回值中：1=写入，0=放弃）
+     */
+    public void setIfCurrent(RedisConnection connection, String key, byte[] rawValue, long ttl, Stamp stamp) {
+        byte[] rawKey = rawKey(key);
+        if (!enabled) {
+            connection.stringCommands().setEx(rawKey, ttl, rawValue);
+            return;
+        }
+        connection.scriptingCommands().eval(SET_IF_CURRENT_LUA.getBytes(StandardCharsets.UTF_8), ReturnType.INTEGER, 3,
+            rawKey, rawKey(VERSION_PREFIX + key), RAW_EPOCH_KEY,
+            number(stamp.version), number(stamp.epoch), rawValue, number(ttl));
+    }
+
+    /**
+     * 记录pipeline回写的结果
+     * @return 是否写入
+     */
+    public boolean accepted(String key, boolean written) {
+        if (!written) {
+            rejected.increment();
+            log.info("【缓存版本】回写期间缓存已被更新或删除，放弃回写，key={}", key);
+        }
+        return written;
+    }
+
+    /**
+     * 更新：版本号加一后写入
+     * @return 新版本号，未开启版本号时为0
+     */
+    public long set(RedisTemplate<String, Object> redis, String key, Object value, long ttl) {
+        if (!enabled) {
+            redis.opsForValue().set(key, value, ttl, TimeUnit.SECONDS);
+            return 0;
+        }
+        Long version = redis.execute(SET_AND_INCREMENT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+            List.of(key, VERSION_PREFIX + key), serialize(redis, value), number(ttl), number(versionTtlSeconds));
+        return version != null ? version : 0;
+    }
+
+    /**
+     * 删除：逐个版本号加一后删除
+     */
+    public void delete(Collection<String> keys) {
+        if (!enabled) {
+            redisTemplate.delete(keys);
+            return;
+        }
+        List<String> scriptKeys = new ArrayList<>(keys.size() * 2);
+        for (String key : keys) {
+            scriptKeys.add(key);
+            scriptKeys.add(VERSION_PREFIX + key);
+        }
+        redisTemplate.execute(DELETE_AND_INCREMENT, RedisSerializer.byteArray(), LONG_SERIALIZER,
+            scriptKeys, number(versionTtlSeconds));
+    }
+
+    /**
+     * 按模式删除前调用：纪元加一，进行中的回写全部放弃
+     */
+    public void advanceEpoch() {
+        if (enabled) {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.stringCommands().incr(RAW_EPOCH_KEY));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public static byte[] serialize(RedisTemplate<String, Object> redis, Object value) {
+        return ((RedisSerializer<Object>) redis.getValueSerializer()).serialize(value);
+    }
+
+    private static Object deserialize(RedisTemplate<String, Object> redis, byte[] bytes) {
+        return bytes != null ? redis.getValueSerializer().deserialize(bytes) : null;
+    }
+
+    private static byte[] valueOf(KeyValue<byte[], byte[]> keyValue) {
+        return keyValue.hasValue() ? keyValue.getValue() : null;
+    }
+
+    private static byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] number(long value) {
+        return Long.toString(value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static long parse(Object raw) {
+        return raw instanceof byte[] ? Long.parseLong(new String((byte[]) raw, StandardCharsets.UTF_8)) : 0;
+    }
+}
@@ -0,0 +1,308 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 缓存回写的异步写入（write-behind）
+ * <p>
+ * 切面把回源后的Redis写入和内存回写放进有界队列后立即返回，后台线程每次取出一批，
+ * 只写内存的直接执行，Redis写入按模板分组用pipeline一次发送，Redis接受（或不可用、无法判断）之后再写内存。
+ * Redis的值在提交时就序列化好，调用方之后修改返回的对象不会影响写入的内容。
+ * 同一个key在队列中只保留最新的一次写入；队列满时丢弃本次回写并计数（下次未命中会再回写）。
+ * Redis写入带上读取时的版本号，执行时版本已变（期间被更新或删除）则由Redis拒绝写入，内存也不写。
+ * key被删除、更新或收到其他节点的失效通知时，取消该key尚未执行的写入，避免旧值在删除之后被写回。
+ * 依赖Redis连接工厂，停机时先于连接关闭，队列中剩余的写入可以执行完。
+ */
+@Component
+@DependsOn("redisConnectionFactory")
+@Slf4j
+public class CacheWriteBehind {
+
+    /**
+     * 后台线程等待新写入的时间（毫秒），停机时据此及时退出
+     */
+    private static final long POLL_MILLIS = 100;
+
+    /**
+     * 一次待执行的回写
+     */
+    private static final class Write {
+        private final String key;
+        private final RedisTemplate<String, Object> redis;
+        private final byte[] rawValue;
+        private final long ttl;
+        private final CacheVersions.Stamp stamp;
+        private final Runnable memoryWrite;
+
+        private Write(String key, RedisTemplate<String, Object> redis, byte[] rawValue, long ttl,
+                      CacheVersions.Stamp stamp, Runnable memoryWrite) {
+            this.key = key;
+            this.redis = redis;
+            this.rawValue = rawValue;
+            this.ttl = ttl;
+            this.stamp = stamp;
+            this.memoryWrite = memoryWrite;
+        }
+    }
+
+    private final RedisCircuitBreaker redisCircuitBreaker;
+    private final CacheVersions cacheVersions;
+    private final boolean enabled;
+    private final int batchSize;
+    private final ArrayBlockingQueue<Write> queue;
+    private final ExecutorService workers;
+    private volatile boolean running = true;
+
+    /**
+     * key -> 该key最新一次尚未执行的写入；不在其中的写入已被覆盖或取消，取出时跳过
+     */
+    private final ConcurrentHashMap<String, Write> pending = new ConcurrentHashMap<>();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder superseded = new LongAdder();
+    private final LongAdder cancelled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public CacheWriteBehind(RedisCircuitBreaker redisCircuitBreaker,
+                            CacheVersions cacheVersions,
+                            @Value("${cache.write-behind.enabled:true}") boolean enabled,
+                            @Value("${cache.write-behind.queue-size:10000}") int queueSize,
+                            @Value("${cache.write-behind.threads:1}") int threads,
+                            @Value("${cache.write-behind.batch-size:100}") int batchSize) {
+        this.redisCircuitBreaker = redisCircuitBreaker;
+        this.cacheVersions = cacheVersions;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+            Thread thread = new Thread(r, "cache-write-behind-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            for (int i = 0; i < Math.max(1, threads); i++) {
+                workers.execute(this::run);
+            }
+        }
+    }
+
+    /**
+     * 停机时不再接收新写入，等待队列中剩余的写入执行完
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        workers.shutdown();
+        if (!workers.awaitTermination(5, TimeUnit.SECONDS)) {
+            log.warn("【异步回写】停机时仍有{}个写入未执行", queue.size());
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 是否可以异步回写，关闭时切面按原来的方式同步写入
+     */
+    public boolean isEnabled() {
+        return enabled && running;
+    }
+
+    /**
+     * 提交一次回写
+     * @param redis 写入Redis使用的模板，为null表示不写Redis
+     * @param redisValue 写入Redis的值，在当前线程按模板的值序列化器序列化
+     * @param ttl Redis过期时间（秒）
+     * @param stamp 读取数据前取得的版本号，写Redis时必须提供
+     * @param memoryWrite 内存回写，为null表示不写内存
+     * @return false=队列已满，本次回写被丢弃
+     */
+    public boolean submit(String key, RedisTemplate<String, Object> redis, Object redisValue, long ttl,
+                          CacheVersions.Stamp stamp, Runnable memoryWrite) {
+        byte[] rawValue = redis != null ? CacheVersions.serialize(redis, redisValue) : null;
+        Write write = new Write(key, redis, rawValue, ttl, stamp, memoryWrite);
+        Write previous = pending.put(key, write);
+        if (!queue.offer(write)) {
+            // 队列满：丢弃本次写入，之前排队的写入仍然有效
+            if (pending.remove(key, write) && previous != null) {
+                pending.putIfAbsent(key, previous);
+            }
+            dropped.increment();
+            log.warn("【异步回写】队列已满，丢弃本次回写，key={}", key);
+            return false;
+        }
+        submitted.increment();
+        if (previous != null) {
+            superseded.increment();
+        }
+        return true;
+    }
+
+    /**
+     * 取消该key尚未执行的写入
+     */
+    public void cancel(String key) {
+        if (pending.remove(key) != null) {
+            cancelled.increment();
+        }
+    }
+
+    /**
+     * 取消这些key尚未执行的写入
+     */
+    public void cancel(Collection<String> keys) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        keys.forEach(this::cancel);
+    }
+
+    /**
+     * 取消匹配通配符模式的key尚未执行的写入
+     */
+    public void cancelMatching(String pattern) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Pattern regex = MemoryCacheManager.globToRegex(pattern);
+        pending.keySet().removeIf(key -> {
+            boolean matched = regex.matcher(key).matches();
+            if (matched) {
+                cancelled.increment();
+            }
+            return matched;
+        });
+    }
+
+    /**
+     * 队列状态和计数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("queued", queue.size());
+        result.put("submitted", submitted.sum());
+        result.put("written", written.sum());
+        result.put("dropped", dropped.sum());
+        result.put("superseded", superseded.sum());
+        result.put("cancelled", cancelled.sum());
+        result.put("failed", failed.sum());
+        return result;
+    }
+
+    /**
+     * 后台线程：阻塞等待第一个写入，再顺带取出已排队的写入凑成一批
+     */
+    private void run() {
+        List<Write> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("【异步回写】执行失败", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<Write> batch) {
+        Map<RedisTemplate<String, Object>, List<Write>> redisWrites = new LinkedHashMap<>();
+        for (Write write : batch) {
+            // 已被更新的写入覆盖或已被取消
+            if (!pending.remove(write.key, write)) {
+                continue;
+            }
+            if (write.redis != null) {
+                redisWrites.computeIfAbsent(write.redis, redis -> new ArrayList<>()).add(write);
+            } else if (writeMemory(write)) {
+                written.increment();
+            }
+        }
+        redisWrites.forEach(this::pipelineSet);
+    }
+
+    /**
+     * 执行内存回写（没有时视为成功）
+     * @return false=内存回写失败
+     */
+    private boolean writeMemory(Write write) {
+        if (write.memoryWrite == null) {
+            return true;
+        }
+        try {
+            write.memoryWrite.run();
+            return true;
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("【异步回写】内存回写失败，key={}", write.key, e);
+            return false;
+        }
+    }
+
+    private void pipelineSet(RedisTemplate<String, Object> redis, List<Write> writes) {
+        List<Object> results;
+        try {
+            // 熔断或超时时这批Redis写入直接丢弃，不在Redis恢复前堆积
+            results = redisCircuitBreaker.execute(() -> redis.executePipelined((RedisCallback<Object>) connection -> {
+                for (Write write : writes) {
+                    cacheVersions.setIfCurrent(connection, write.key, write.rawValue, write.ttl, write.stamp);
+                }
+                return null;
+            }), null);
+        } catch (RuntimeException e) {
+            log.warn("【异步回写】pipeline回写Redis失败，key数量={}", writes.size(), e);
+            results = null;
+        }
+        if (results == null) {
+            // 和同步回写一样，Redis不可用时仍写内存，这批写入按失败计数
+            failed.add(writes.size());
+            log.warn("【异步回写】Redis不可用，丢弃{}个Redis写入，只写内存", writes.size());
+            writes.forEach(this::writeMemory);
+            return;
+        }
+        // 版本校验的结果为0表示期间已被更新或删除，内存也不写；未开启版本校验时为SETEX的结果
+        int accepted = 0;
+        for (int i = 0; i < writes.size(); i++) {
+            Write write = writes.get(i);
+            Object result = i < results.size() ? results.get(i) : null;
+            if (!(result instanceof Long) || cacheVersions.accepted(write.key, (Long) result == 1L)) {
+                accepted++;
+                if (writeMemory(write)) {
+                    written.increment();
+                }
+            }
+        }
+        log.debug("【异步回写】pipeline回写Redis缓存{}个", accepted);
+    }
+}
@@ -0,0 +1,148 @@
+package org.example.framework.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 压缩Redis值序列化器
+ * <p>
+ * 包装原有的值序列化器：序列化结果超过阈值时用Deflate压缩，格式为 [头字节][原始长度4字节][压缩数据]；
+ * 小于阈值或压缩后没有变小的值原样写入。
+ * 头字节取 0xC1（在UTF-8中不可能出现），读取时据此区分压缩值和原有的JSON值，旧值可以直接读出。
+ * 没有本序列化器的旧版本节点读到压缩值会反序列化失败，因此分两步上线：
+ * 先以只读方式（compress=false）部署到所有节点，再开启 cache.redis.compression.enabled 写入压缩值。
+ * Deflater/Inflater 按线程复用，避免每次创建本地压缩流。
+ * 解压前校验头中的原始长度：超过上限或超过Deflate可能的最大压缩比，按数据损坏处理，不按它分配内存。
+ */
+public class CompressingRedisSerializer implements RedisSerializer<Object> {
+
+    /**
+     * Deflate压缩值的头字节
+     */
+    public static final byte DEFLATE = (byte) 0xC1;
+
+    private static final int HEADER_LENGTH = 5;
+
+    /**
+     * 默认的解压后最大长度（字节）
+     */
+    public static final int DEFAULT_MAX_RAW_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * Deflate的理论最大压缩比约为1032:1
+     */
+    private static final long MAX_DEFLATE_RATIO = 1032;
+
+    private final RedisSerializer<Object> delegate;
+    private final int thresholdBytes;
+    private final int maxRawBytes;
+    private final ThreadLocal<Deflater> deflaters;
+    private final ThreadLocal<Inflater> inflaters = ThreadLocal.withInitial(() -> new Inflater(true));
+
+    /**
+     * true时写入压缩值，false时只负责读取（滚动升级的第一步）
+     */
+    private final boolean compress;
+
+    /**
+     * @param delegate 实际的值序列化器
+     * @param thresholdBytes 序列化结果达到该字节数才压缩
+     * @param level 压缩级别 1-9，1最快
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int thresholdBytes, int level) {
+        this(delegate, thresholdBytes, level, true);
+    }
+
+    /**
+     * @param compress false时写入不压缩，只识别并解压读到的压缩值
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int thresholdBytes, int level, boolean compress) {
+        this(delegate, thresholdBytes, level, compress, DEFAULT_MAX_RAW_BYTES);
+    }
+
+    /**
+     * @param maxRawBytes 解压后的最大长度（字节），头中的原始长度超过该值时拒绝解压
+     */
+    public CompressingRedisSerializer(RedisSerializer<Object> delegate, int thresholdBytes, int level, boolean compress,
+                                      int maxRawBytes) {
+        this.delegate = delegate;
+        this.compress = compress;
+        this.maxRawBytes = Math.max(1, maxRawBytes);
+        this.thresholdBytes = Math.max(HEADER_LENGTH + 1, thresholdBytes);
+        int deflateLevel = Math.min(Deflater.BEST_COMPRESSION, Math.max(Deflater.BEST_SPEED, level));
+        this.deflaters = ThreadLocal.withInitial(() -> new Deflater(deflateLevel, true));
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] raw = delegate.serialize(value);
+        if (!compress || raw == null || raw.length < thresholdBytes) {
+            return raw;
+        }
+        Deflater deflater = deflaters.get();
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        // 输出缓冲区和原始数据一样大：放不下说明压缩没有收益，直接写原始数据
+        byte[] out = new byte[raw.length];
+        int length = HEADER_LENGTH;
+        while (!deflater.finished() && length < out.length) {
+            length += deflater.deflate(out, length, out.length - length);
+        }
+        if (!deflater.finished()) {
+            return raw;
+        }
+        out[0] = DEFLATE;
+        ByteBuffer.wrap(out, 1, 4).putInt(raw.length);
+        byte[] result = new byte[length];
+        System.arraycopy(out, 0, result, 0, length);
+        return result;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0 || bytes[0] != DEFLATE) {
+            return delegate.deserialize(bytes);
+        }
+        return delegate.deserialize(inflate(bytes));
+    }
+
+    private byte[] inflate(byte[] bytes) {
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("压缩数据长度不足");
+        }
+        int rawLength = ByteBuffer.wrap(bytes, 1, 4).getInt();
+        if (rawLength < 0) {
+            throw new SerializationException("压缩数据头损坏，原始长度=" + rawLength);
+        }
+        if (rawLength > maxRawBytes || rawLength > (bytes.length - HEADER_LENGTH) * MAX_DEFLATE_RATIO) {
+            throw new SerializationException("压缩数据头中的原始长度不合理，原始长度=" + rawLength
+                + "，压缩长度=" + (bytes.length - HEADER_LENGTH) + "，上限=" + maxRawBytes);
+        }
+        Inflater inflater = inflaters.get();
+        inflater.reset();
+        inflater.setInput(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        byte[] raw = new byte[rawLength];
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(raw, length, rawLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += n;
+            }
+            if (length != rawLength) {
+                throw new SerializationException("压缩数据不完整，期望" + rawLength + "字节，实际" + length + "字节");
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new SerializationException("压缩数据格式错误", e);
+        }
+    }
+}
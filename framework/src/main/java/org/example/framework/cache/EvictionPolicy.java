@@ -0,0 +1,58 @@
+package org.example.framework.cache;
+
+import java.util.List;
+
+/**
+ * 内存缓存容量淘汰策略
+ * 只负责维护key的淘汰顺序，数据由 {@link MemoryCacheManager} 保存；实现非线程安全，由调用方在写锁内调用
+ */
+public interface EvictionPolicy {
+
+    /**
+     * 可选的策略类型，在 cache.regions.*.eviction-policy 中配置
+     */
+    enum Type {
+        /** 窗口LRU + TinyLFU准入 + 分段LRU，适合有明显热点的数据 */
+        W_TINY_LFU,
+        /** 最近最少使用，适合条目少、访问均匀的数据 */
+        LRU
+    }
+
+    /**
+     * 记录一次读访问（命中或未命中）
+     */
+    void onAccess(String key);
+
+    /**
+     * 记录一次写入
+     * @return 因条目数超限被淘汰的key（可能包含刚写入的key本身）
+     */
+    List<String> onWrite(String key);
+
+    /**
+     * 移除key（主动删除或过期）
+     */
+    void onRemove(String key);
+
+    /**
+     * 按策略选出并移除一个最该淘汰的key（按权重淘汰时使用）
+     * @return 被淘汰的key，没有条目时返回null
+     */
+    String evictVictim();
+
+    /**
+     * 估算key最近的访问频率（含未命中），不统计频率的策略返回-1
+     */
+    default int frequency(String key) {
+        return -1;
+    }
+
+    /**
+     * 当前条目数
+     */
+    int size();
+
+    long getMaximumSize();
+
+    void clear();
+}
@@ -0,0 +1,175 @@
+package org.example.framework.cache;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按字段拷贝的深拷贝工具
+ * <p>
+ * 每个类的无参构造器和实例字段只反射解析一次并缓存，之后的拷贝只有字段读写，没有JSON的序列化和解析开销。
+ * 不可变类型（String、包装类、枚举、java.time等）直接复用；集合和数组逐个元素拷贝；
+ * 遇到无法拷贝的类型（没有无参构造器、JDK内部类）抛出 {@link IllegalStateException}，由调用方降级。
+ */
+public class FieldCloner {
+
+    /**
+     * 类的拷贝元数据
+     */
+    private static final class ClassInfo {
+        private final Constructor<?> constructor;
+        private final Field[] fields;
+
+        private ClassInfo(Constructor<?> constructor, Field[] fields) {
+            this.constructor = constructor;
+            this.fields = fields;
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, ClassInfo> classInfoCache = new ConcurrentHashMap<>();
+
+    /**
+     * 深拷贝对象
+     */
+    public Object deepClone(Object source) {
+        return clone(source, new IdentityHashMap<>());
+    }
+
+    private Object clone(Object source, IdentityHashMap<Object, Object> visited) {
+        if (source == null || isImmutable(source)) {
+            return source;
+        }
+        Object copied = visited.get(source);
+        if (copied != null) {
+            return copied;
+        }
+
+        Class<?> type = source.getClass();
+        if (type.isArray()) {
+            return cloneArray(source, type, visited);
+        }
+        if (source instanceof Date) {
+            Object copy = ((Date) source).clone();
+            visited.put(source, copy);
+            return copy;
+        }
+        if (source instanceof Collection) {
+            return cloneCollection((Collection<?>) source, visited);
+        }
+        if (source instanceof Map) {
+            return cloneMap((Map<?, ?>) source, visited);
+        }
+        return cloneBean(source, type, visited);
+    }
+
+    private Object cloneArray(Object source, Class<?> type, IdentityHashMap<Object, Object> visited) {
+        int length = Array.getLength(source);
+        Object copy = Array.newInstance(type.getComponentType(), length);
+        visited.put(source, copy);
+        if (type.getComponentType().isPrimitive()) {
+            System.arraycopy(source, 0, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, clone(Array.get(source, i), visited));
+            }
+        }
+        return copy;
+    }
+
+    private Object cloneCollection(Collection<?> source, IdentityHashMap<Object, Object> visited) {
+        Collection<Object> copy;
+        if (source instanceof List) {
+            copy = new ArrayList<>(source.size());
+        } else if (source instanceof Set) {
+            copy = new LinkedHashSet<>(Math.max(16, source.size() * 4 / 3 + 1));
+        } else {
+            copy = new ArrayList<>(source.size());
+        }
+        visited.put(source, copy);
+        for (Object element : source) {
+            copy.add(clone(element, visited));
+        }
+        return copy;
+    }
+
+    private Object cloneMap(Map<?, ?> source, IdentityHashMap<Object, Object> visited) {
+        Map<Object, Object> copy = new LinkedHashMap<>(Math.max(16, source.size() * 4 / 3 + 1));
+        visited.put(source, copy);
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            copy.put(clone(entry.getKey(), visited), clone(entry.getValue(), visited));
+        }
+        return copy;
+    }
+
+    private Object cloneBean(Object source, Class<?> type, IdentityHashMap<Object, Object> visited) {
+        ClassInfo info = classInfoCache.computeIfAbsent(type, this::resolve);
+        try {
+            Object copy = info.constructor.newInstance();
+            visited.put(source, copy);
+            for (Field field : info.fields) {
+                Class<?> fieldType = field.getType();
+                if (fieldType.isPrimitive()) {
+                    field.set(copy, field.get(source));
+                } else {
+                    field.set(copy, clone(field.get(source), visited));
+                }
+            }
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法拷贝类型: " + type.getName(), e);
+        }
+    }
+
+    /**
+     * 解析类的无参构造器和所有实例字段（包括父类）
+     */
+    private ClassInfo resolve(Class<?> type) {
+        if (type.getName().startsWith("java.") || type.getName().startsWith("javax.")) {
+            throw new IllegalStateException("不支持拷贝JDK内部类型: " + type.getName());
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        fields.add(field);
+                    }
+                }
+            }
+            return new ClassInfo(constructor, fields.toArray(new Field[0]));
+        } catch (NoSuchMethodException | RuntimeException e) {
+            throw new IllegalStateException("无法拷贝类型（缺少无参构造器或无法访问）: " + type.getName(), e);
+        }
+    }
+
+    private static boolean isImmutable(Object value) {
+        return value instanceof String
+            || value instanceof Number && value.getClass().getName().startsWith("java.lang.")
+            || value instanceof BigDecimal
+            || value instanceof BigInteger
+            || value instanceof Boolean
+            || value instanceof Character
+            || value instanceof Enum
+            || value instanceof UUID
+            || value instanceof TemporalAccessor && value.getClass().getName().startsWith("java.time.")
+            || value instanceof Class;
+    }
+}
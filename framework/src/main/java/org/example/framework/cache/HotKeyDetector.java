@@ -0,0 +1,223 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 热点key探测
+ * <p>
+ * 请求线程只把key放进有损的环形缓冲区（满了直接丢弃，热点key出现次数多，丢弃不影响判定），
+ * 后台线程定时取出，用Count-Min Sketch估算每个key在当前窗口内的请求次数，并维护请求最多的top-K候选。
+ * 每个窗口结束时，候选中次数达到阈值的key成为热点，发布给 {@link #isHot(String)}，然后清零进入下一个窗口。
+ * 热点key由切面固定在内存缓存中（短TTL、不参与容量淘汰），即使所在区域不使用内存缓存。
+ */
+@Component
+@Slf4j
+public class HotKeyDetector {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private static final long DRAIN_INTERVAL_MILLIS = 50;
+
+    private static final int SKETCH_DEPTH = 4;
+
+    private static final int SKETCH_WIDTH = 4096;
+
+    private static final int[] SEED = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    @Value("${cache.hot-key.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.hot-key.top-k:20}")
+    private int topK;
+
+    @Value("${cache.hot-key.window-millis:1000}")
+    private long windowMillis;
+
+    /**
+     * 一个窗口内本节点请求次数达到该值才算热点
+     */
+    @Value("${cache.hot-key.threshold:200}")
+    private long threshold;
+
+    @Value("${cache.hot-key.local-ttl-seconds:5}")
+    private long localTtlSeconds;
+
+    private final ArrayBlockingQueue<String> buffer = new ArrayBlockingQueue<>(BUFFER_SIZE);
+
+    /**
+     * 缓冲区满被丢弃的记录数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 以下状态只由后台线程访问
+     */
+    private final int[][] sketch = new int[SKETCH_DEPTH][SKETCH_WIDTH];
+    private final Map<String, Long> candidates = new HashMap<>();
+    private long windowStart = System.currentTimeMillis();
+
+    /**
+     * 当前热点key -> 上个窗口的估算请求次数（按次数降序，不可变）
+     */
+    private volatile Map<String, Long> hotKeys = Collections.emptyMap();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cache-hot-key");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::drain, DRAIN_INTERVAL_MILLIS, DRAIN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("热点key探测已开启，窗口={}ms, 阈值={}次/窗口, top-K={}, 本地固定时间={}秒",
+            windowMillis, threshold, topK, localTtlSeconds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * 记录一次请求
+     * @return 该key当前是否为热点
+     */
+    public boolean record(String key) {
+        if (!enabled) {
+            return false;
+        }
+        if (!buffer.offer(key)) {
+            dropped.increment();
+        }
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 判断key当前是否为热点
+     */
+    public boolean isHot(String key) {
+        return hotKeys.containsKey(key);
+    }
+
+    /**
+     * 热点key在内存缓存中的固定时间（秒）
+     */
+    public long getLocalTtlSeconds() {
+        return localTtlSeconds;
+    }
+
+    /**
+     * 当前热点key及统计信息
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("windowMillis", windowMillis);
+        result.put("threshold", threshold);
+        result.put("hotKeys", hotKeys);
+        result.put("dropped", dropped.sum());
+        return result;
+    }
+
+    /**
+     * 取出缓冲区的记录累加计数，窗口结束时发布热点
+     */
+    private void drain() {
+        try {
+            String key;
+            while ((key = buffer.poll()) != null) {
+                offer(key, increment(key));
+            }
+            long now = System.currentTimeMillis();
+            if (now - windowStart >= windowMillis) {
+                rotate();
+                windowStart = now;
+            }
+        } catch (RuntimeException e) {
+            log.error("【热点key】统计失败", e);
+        }
+    }
+
+    /**
+     * 更新top-K候选：已在候选中则更新次数，否则替换次数最少的候选
+     */
+    private void offer(String key, long count) {
+        if (candidates.containsKey(key) || candidates.size() < topK) {
+            candidates.put(key, count);
+            return;
+        }
+        String minKey = null;
+        long minCount = Long.MAX_VALUE;
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() < minCount) {
+                minKey = entry.getKey();
+                minCount = entry.getValue();
+            }
+        }
+        if (count > minCount) {
+            candidates.remove(minKey);
+            candidates.put(key, count);
+        }
+    }
+
+    private void rotate() {
+        List<Map.Entry<String, Long>> hot = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+            if (entry.getValue() >= threshold) {
+                hot.add(entry);
+            }
+        }
+        hot.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> published = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : hot) {
+            published.put(entry.getKey(), entry.getValue());
+        }
+        if (!published.keySet().equals(hotKeys.keySet())) {
+            log.info("【热点key】热点变化：{}", published);
+        }
+        hotKeys = Collections.unmodifiableMap(published);
+        candidates.clear();
+        for (int[] row : sketch) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    /**
+     * Count-Min Sketch 计数加一，返回估算次数（各行最小值）
+     */
+    private long increment(String key) {
+        int hash = key.hashCode();
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < SKETCH_DEPTH; i++) {
+            int h = (hash ^ SEED[i]) * 0x45D9F3B;
+            h ^= h >>> 16;
+            int index = h & (SKETCH_WIDTH - 1);
+            if (sketch[i][index] < Integer.MAX_VALUE) {
+                sketch[i][index]++;
+            }
+            estimate = Math.min(estimate, sketch[i][index]);
+        }
+        return estimate;
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.framework.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁延迟直方图
+ * 固定的毫秒级桶边界，每个桶一个LongAdder，记录时只做一次二分查找和一次累加；
+ * 分位数按桶上界估算，精度足够用来调TTL和容量
+ */
+public class LatencyHistogram {
+
+    /**
+     * 桶上界（毫秒），最后一个桶收集所有更慢的请求
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次耗时
+     */
+    public void record(long nanos) {
+        long millis = nanos / 1_000_000;
+        int low = 0;
+        int high = BUCKET_BOUNDS_MILLIS.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (BUCKET_BOUNDS_MILLIS[mid] < millis) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        buckets[low].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long count() {
+        return count.sum();
+    }
+
+    /**
+     * 估算分位数（返回所在桶的上界，毫秒），没有数据返回0
+     */
+    public long percentileMillis(double percentile) {
+        long[] counts = bucketCounts();
+        long total = 0;
+        for (long c : counts) {
+            total += c;
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return i < BUCKET_BOUNDS_MILLIS.length ? BUCKET_BOUNDS_MILLIS[i] : maxNanos.get() / 1_000_000;
+            }
+        }
+        return maxNanos.get() / 1_000_000;
+    }
+
+    /**
+     * 统计快照：次数、平均/最大耗时、p50/p95/p99、各桶计数
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long total = count.sum();
+        snapshot.put("count", total);
+        snapshot.put("avgMillis", total == 0 ? 0 : totalNanos.sum() / total / 1_000_000.0);
+        snapshot.put("maxMillis", maxNanos.get() / 1_000_000.0);
+        snapshot.put("p50Millis", percentileMillis(0.50));
+        snapshot.put("p95Millis", percentileMillis(0.95));
+        snapshot.put("p99Millis", percentileMillis(0.99));
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        long[] counts = bucketCounts();
+        for (int i = 0; i < counts.length; i++) {
+            String label = i < BUCKET_BOUNDS_MILLIS.length ? "<=" + BUCKET_BOUNDS_MILLIS[i] + "ms" : ">" + BUCKET_BOUNDS_MILLIS[i - 1] + "ms";
+            distribution.put(label, counts[i]);
+        }
+        snapshot.put("buckets", distribution);
+        return snapshot;
+    }
+
+    private long[] bucketCounts() {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.framework.cache;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.cluster.RedisClusterClient;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisClusterAsyncCommands;
+import io.lettuce.core.codec.ByteArrayCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 供异步缓存查询使用的Lettuce连接
+ * <p>
+ * 用连接工厂的客户端另开一条专用连接，直接发送Lettuce的异步命令，调用线程不等待Redis返回。
+ * Lettuce在同一条连接上自动流水线发送，多个并发请求共用一条连接即可。
+ * 每个命令按 spring.redis.timeout 设置超时，超时以 TimeoutException 结束，由熔断器计为失败。
+ * 依赖Redis连接工厂，停机时先于客户端关闭。
+ */
+@Component
+@DependsOn("redisConnectionFactory")
+@Slf4j
+public class LettuceAsyncConnection {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private volatile StatefulConnection<byte[], byte[]> connection;
+
+    private volatile RedisClusterAsyncCommands<byte[], byte[]> commands;
+
+    public LettuceAsyncConnection(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * 连接工厂是否为Lettuce，不是时切面在调用线程上同步访问Redis
+     */
+    public boolean isAvailable() {
+        return connectionFactory instanceof LettuceConnectionFactory;
+    }
+
+    /**
+     * 发送一个异步命令
+     * @param command 用异步命令接口发送命令
+     */
+    public <T> CompletableFuture<T> execute(Function<RedisClusterAsyncCommands<byte[], byte[]>, RedisFuture<T>> command) {
+        LettuceConnectionFactory factory = (LettuceConnectionFactory) connectionFactory;
+        return command.apply(commands()).toCompletableFuture().orTimeout(factory.getTimeout(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void close() {
+        StatefulConnection<byte[], byte[]> current = connection;
+        if (current != null) {
+            current.closeAsync();
+        }
+    }
+
+    /**
+     * 第一次使用时建立连接；断线由Lettuce自动重连
+     */
+    private RedisClusterAsyncCommands<byte[], byte[]> commands() {
+        RedisClusterAsyncCommands<byte[], byte[]> current = commands;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (commands == null) {
+                AbstractRedisClient client = ((LettuceConnectionFactory) connectionFactory).getRequiredNativeClient();
+                if (client instanceof RedisClusterClient) {
+                    StatefulRedisClusterConnection<byte[], byte[]> cluster = ((RedisClusterClient) client).connect(ByteArrayCodec.INSTANCE);
+                    connection = cluster;
+                    commands = cluster.async();
+                } else {
+                    StatefulRedisConnection<byte[], byte[]> standalone = ((RedisClient) client).connect(ByteArrayCodec.INSTANCE);
+                    connection = standalone;
+                    commands = standalone.async();
+                }
+                log.info("【异步缓存】已建立Lettuce异步连接");
+            }
+            return commands;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.framework.cache;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * LRU 淘汰策略
+ * 基于访问顺序的LinkedHashMap，超过最大条目数时淘汰最久未访问的key。
+ * 非线程安全，由 {@link MemoryCacheManager} 在写锁内调用。
+ */
+public class LruPolicy implements EvictionPolicy {
+
+    private final LinkedHashMap<String, Boolean> order = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final long maximumSize;
+
+    /**
+     * @param maximumSize 最大条目数
+     */
+    public LruPolicy(long maximumSize) {
+        this.maximumSize = Math.max(1, maximumSize);
+    }
+
+    @Override
+    public void onAccess(String key) {
+        order.get(key);
+    }
+
+    @Override
+    public List<String> onWrite(String key) {
+        order.put(key, Boolean.TRUE);
+        List<String> evicted = new ArrayList<>(0);
+        while (order.size() > maximumSize) {
+            evicted.add(evictVictim());
+        }
+        return evicted;
+    }
+
+    @Override
+    public void onRemove(String key) {
+        order.remove(key);
+    }
+
+    @Override
+    public String evictVictim() {
+        Iterator<String> iterator = order.keySet().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        String victim = iterator.next();
+        iterator.remove();
+        return victim;
+    }
+
+    @Override
+    public int size() {
+        return order.size();
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    @Override
+    public void clear() {
+        order.clear();
+    }
+}
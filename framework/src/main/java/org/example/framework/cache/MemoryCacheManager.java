@@ -1,16 +1,43 @@
 package org.example.framework.cache;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.support.NullValue;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
 
 /**
  * 内存缓存管理器
  * 使用ConcurrentHashMap实现线程安全的本地缓存
+ * 条目数受 cache.memory.maximum-size 限制，超出后按 W-TinyLFU 策略淘汰
+ * cache.regions 中配置了容量的区域使用独立的淘汰策略和容量（条目数和/或权重），互不挤占
+ * 过期条目由分层时间轮按秒推进清理，只处理到期的桶
+ * 开启 cache.memory.off-heap.enabled 后，值序列化存放在堆外slab中，堆上只保留索引
+ * 开启 cache.memory.snapshot.enabled 后，定时和停机时把缓存写入本地快照文件，重启后按需懒加载（热启动）
+ * 回源回写使用 {@link #putVersioned}：条目保存Redis中的版本号，旧版本不覆盖新版本，读取之后被删除过的key不再写入
+ * 开启 cache.memory.cost-aware.enabled 后按未命中代价（重新加载耗时）和访问频率决定准入和过期时间：
+ * 加载很快又很少访问的key不进入内存缓存，淘汰时加载慢的key更容易留下，热且贵的key存活更久、冷且便宜的更短
  */
 @Component
 @Slf4j
@@ -21,36 +48,271 @@ public class MemoryCacheManager {
      */
     private final ConcurrentHashMap<String, CacheEntry> cache = new ConcurrentHashMap<>();
     
+    /**
+     * 每个key回源（查询数据库）的耗时，微秒，取指数平均；只由数据库加载更新，条目被淘汰或删除后仍保留。
+     * 从Redis命中回写、等待其他节点加载等路径都用这里的值，同一个key不会因为这次恰好从哪一层拿到而得出不同的准入和过期时间
+     * 记录数不超过 maximum-size，满了丢掉耗时最低的 1/16（丢掉后按未知代价处理，便宜的key最多多进一次内存缓存）
+     */
+    private final ConcurrentHashMap<String, Long> loadCosts = new ConcurrentHashMap<>();
+    
+    private final long loadCostCapacity;
+    
+    private final AtomicBoolean loadCostTrimming = new AtomicBoolean(false);
+    
+    /**
+     * 加载耗时指数平均中新样本的权重
+     */
+    private static final double LOAD_COST_ALPHA = 0.3;
+    
     /**
      * 定时清理过期缓存的线程池
      */
     private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
     
     /**
-     * 缓存条目，包含数据和过期时间
+     * 定时写快照的线程：写快照要序列化所有条目，放在单独的线程里，不耽误时钟刷新和过期清理
+     */
+    private final ScheduledExecutorService snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "memory-cache-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    /**
+     * 粗粒度时钟刷新间隔（毫秒）
+     */
+    private static final long CLOCK_TICK_MILLIS = 100;
+    
+    /**
+     * 粗粒度时钟：由后台线程定时刷新，读路径不再每次调用 System.currentTimeMillis()
+     */
+    private volatile long clockMillis = System.currentTimeMillis();
+    
+    /**
+     * 过期时间轮，和淘汰策略一样在 evictionLock 内操作
+     */
+    private final TimerWheel timerWheel = new TimerWheel(clockMillis);
+    
+    /**
+     * 默认区域：未单独配置容量的缓存共用
+     */
+    private final Region defaultRegion;
+    
+    /**
+     * 配置了独立容量的区域，区域名 -> 区域
+     */
+    private final Map<String, Region> regions = new HashMap<>();
+    
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    
+    private static final int READ_BUFFER_SIZE = 128;
+    
+    private static final int READ_BUFFER_DRAIN_THRESHOLD = 32;
+    
+    /**
+     * 读缓冲区：命中时只记录key，攒够一批再在锁内回放到淘汰策略，满了直接丢弃（有损）
+     */
+    private final ArrayBlockingQueue<String> readBuffer = new ArrayBlockingQueue<>(READ_BUFFER_SIZE);
+    
+    /**
+     * 因容量不足被淘汰的条目数
+     */
+    private final LongAdder evictionCount = new LongAdder();
+    
+    /**
+     * 因过期被清理的条目数
+     */
+    private final LongAdder expirationCount = new LongAdder();
+    
+    /**
+     * 因版本落后或读取后被删除而放弃的回写数
+     */
+    private final LongAdder staleWriteCount = new LongAdder();
+    
+    private static final int INVALIDATION_STRIPES = 1024;
+    
+    /**
+     * 加载很快、访问又少而未准入的写入数
+     */
+    private final LongAdder cheapRejectionCount = new LongAdder();
+    
+    /**
+     * 删除序号：每次主动删除加一，{@link #invalidationToken()} 返回当前值
+     */
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    
+    /**
+     * 按key哈希分段记录最近一次删除的序号（有损：同段其他key的删除也会让回写放弃，只会少缓存一次），在 evictionLock 内读写
+     */
+    private final long[] invalidatedAt = new long[INVALIDATION_STRIPES];
+    
+    /**
+     * 最近一次按模式删除或清空的序号，在 evictionLock 内写
+     */
+    private volatile long clearedAt;
+    
+    /**
+     * 堆外存储，未开启时为null
+     */
+    private final OffHeapStore offHeapStore;
+    
+    @Value("${cache.memory.cost-aware.enabled:true}")
+    private boolean costAware;
+    
+    /**
+     * 加载耗时（微秒）低于该值的key视为便宜，访问频率达到 cheap-min-frequency 才准入
+     */
+    @Value("${cache.memory.cost-aware.cheap-load-micros:1000}")
+    private long cheapLoadMicros;
+    
+    @Value("${cache.memory.cost-aware.cheap-min-frequency:2}")
+    private int cheapMinFrequency;
+    
+    /**
+     * 加载耗时（微秒）达到该值且访问频率达到 hot-frequency 的key，过期时间乘以 max-ttl-factor
+     */
+    @Value("${cache.memory.cost-aware.expensive-load-micros:20000}")
+    private long expensiveLoadMicros;
+    
+    @Value("${cache.memory.cost-aware.hot-frequency:8}")
+    private int hotFrequency;
+    
+    /**
+     * 便宜且只访问过一次的key，过期时间乘以该值
+     */
+    @Value("${cache.memory.cost-aware.min-ttl-factor:0.5}")
+    private double minTtlFactor;
+    
+    @Value("${cache.memory.cost-aware.max-ttl-factor:2.0}")
+    private double maxTtlFactor;
+    
+    @Value("${cache.memory.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+    
+    @Value("${cache.memory.snapshot.path:./data/l1-cache.snapshot}")
+    private String snapshotPath;
+    
+    @Value("${cache.memory.snapshot.interval-seconds:300}")
+    private long snapshotIntervalSeconds;
+    
+    /**
+     * 快照最大年龄（秒），更旧的快照直接丢弃：停机期间错过的失效广播无法补回，不能无限期信任旧数据
+     */
+    @Value("${cache.memory.snapshot.max-age-seconds:600}")
+    private long snapshotMaxAgeSeconds;
+    
+    /**
+     * 快照值编解码，也用于按权重限制容量时估算值的大小
+     */
+    private final CacheValueCodec valueCodec = new CacheValueCodec();
+    
+    /**
+     * 启动时加载的快照，条目在第一次访问时才反序列化；全部取完或过期后置为null
+     */
+    private volatile CacheSnapshot snapshot;
+    
+    /**
+     * 条目被动移除的原因
+     */
+    public enum RemovalCause {
+        /** 容量不足被淘汰 */
+        SIZE,
+        /** 过期被清理 */
+        EXPIRED
+    }
+    
+    /**
+     * 条目被动移除监听器，在 evictionLock 内回调，实现必须足够轻量
+     */
+    @FunctionalInterface
+    public interface RemovalListener {
+        void onRemoval(String key, RemovalCause cause);
+    }
+    
+    private volatile RemovalListener removalListener = (key, cause) -> { };
+    
+    /**
+     * 缓存区域：独立的淘汰策略和容量，字段在 evictionLock 内读写
+     */
+    private static final class Region {
+        private final String name;
+        private final EvictionPolicy policy;
+        /**
+         * 最大权重（字节），0表示不按权重限制
+         */
+        private final long maximumWeight;
+        private long weight;
+        
+        private Region(String name, EvictionPolicy policy, long maximumWeight) {
+            this.name = name;
+            this.policy = policy;
+            this.maximumWeight = maximumWeight;
+        }
+    }
+    
+    /**
+     * 缓存条目，包含数据、过期时间和时间轮节点；堆外模式下数据是 {@link OffHeapStore.Handle}
      */
     private static class CacheEntry {
         private final Object value;
         private final long expireTime;
+        private final Region region;
+        private final long weight;
+        /**
+         * Redis中的版本号，0表示未知
+         */
+        private final long version;
+        /**
+         * 未命中代价：得到该值的加载耗时（微秒），-1表示未知
+         */
+        private final long loadMicros;
+        private TimerWheel.Node timerNode;
         
-        public CacheEntry(Object value, long ttl) {
+        public CacheEntry(Object value, long expireTime, Region region, long weight, long version, long loadMicros) {
             this.value = value;
-            this.expireTime = System.currentTimeMillis() + ttl * 1000;
-        }
-        
-        public Object getValue() {
-            return value;
+            this.expireTime = expireTime;
+            this.region = region;
+            this.weight = weight;
+            this.version = version;
+            this.loadMicros = loadMicros;
         }
         
-        public boolean isExpired() {
-            return System.currentTimeMillis() > expireTime;
+        public boolean isExpired(long now) {
+            return now > expireTime;
         }
     }
     
-    public MemoryCacheManager() {
-        // 每分钟清理一次过期缓存
-        scheduler.scheduleAtFixedRate(this::cleanExpiredCache, 1, 1, TimeUnit.MINUTES);
-        log.info("内存缓存管理器初始化完成");
+    public MemoryCacheManager(@Value("${cache.memory.maximum-size:100000}") long maximumSize,
+                              @Value("${cache.memory.off-heap.enabled:false}") boolean offHeapEnabled,
+                              @Value("${cache.memory.off-heap.capacity-mb:256}") long offHeapCapacityMb,
+                              @Value("${cache.memory.off-heap.slab-size-kb:1024}") int offHeapSlabSizeKb,
+                              CacheRegions cacheRegions) {
+        this.defaultRegion = new Region("default", new WindowTinyLfuPolicy(maximumSize, this::costWeight), 0);
+        this.loadCostCapacity = Math.max(1, maximumSize);
+        cacheRegions.getRegions().forEach((name, config) -> {
+            if (config.hasCapacity()) {
+                long regionMaximumSize = config.getMaximumSize() != null && config.getMaximumSize() > 0
+                    ? config.getMaximumSize() : maximumSize;
+                long maximumWeight = config.getMaximumWeight() != null ? Math.max(0, config.getMaximumWeight()) : 0;
+                regions.put(name, new Region(name, newPolicy(config.getEvictionPolicy(), regionMaximumSize), maximumWeight));
+                log.info("内存缓存区域[{}]：最大条目数={}, 最大权重={}, 淘汰策略={}", name, regionMaximumSize,
+                    maximumWeight > 0 ? maximumWeight + "字节" : "不限", config.getEvictionPolicy());
+            }
+        });
+        this.offHeapStore = offHeapEnabled
+            ? new OffHeapStore(offHeapCapacityMb * 1024 * 1024, offHeapSlabSizeKb * 1024)
+            : null;
+        // 刷新粗粒度时钟
+        scheduler.scheduleAtFixedRate(() -> clockMillis = System.currentTimeMillis(),
+            CLOCK_TICK_MILLIS, CLOCK_TICK_MILLIS, TimeUnit.MILLISECONDS);
+        // 每秒推进一次时间轮，只清理到期的桶
+        scheduler.scheduleAtFixedRate(this::expireEntries, 1, 1, TimeUnit.SECONDS);
+        log.info("内存缓存管理器初始化完成，默认最大条目数={}, 堆外存储={}", maximumSize,
+            offHeapEnabled ? offHeapCapacityMb + "MB" : "关闭");
+    }
+    
+    private EvictionPolicy newPolicy(EvictionPolicy.Type type, long maximumSize) {
+        return type == EvictionPolicy.Type.LRU ? new LruPolicy(maximumSize) : new WindowTinyLfuPolicy(maximumSize, this::costWeight);
     }
     
     /**
@@ -60,10 +322,206 @@ public class MemoryCacheManager {
      * @param ttl 过期时间（秒）
      */
     public void put(String key, Object value, long ttl) {
-        cache.put(key, new CacheEntry(value, ttl));
+        doPut(key, value, clockMillis + ttl * 1000, false, false, 0, -1, -1);
         log.debug("【内存缓存】存入数据，key={}, ttl={}秒", key, ttl);
     }
     
+    /**
+     * 固定存储（热点key使用）：不参与容量和权重淘汰，只按过期时间清理
+     * @param key 缓存key
+     * @param value 缓存值
+     * @param ttl 过期时间（秒），应当较短
+     */
+    public void putPinned(String key, Object value, long ttl) {
+        doPut(key, value, clockMillis + ttl * 1000, false, true, 0, -1, -1);
+        log.debug("【内存缓存】固定存入热点数据，key={}, ttl={}秒", key, ttl);
+    }
+    
+    /**
+     * 带版本号写入：已有更新版本的条目，或key在token之后被主动删除过，则放弃写入
+     * @param version 值在Redis中的版本号，0表示未知
+     * @param token 读取数据之前 {@link #invalidationToken()} 的返回值
+     * @param pinned 是否固定存储（热点key）
+     * @return 是否写入
+     */
+    public boolean putVersioned(String key, Object value, long ttl, long version, long token, boolean pinned) {
+        return putVersioned(key, value, ttl, version, token, pinned, -1);
+    }
+    
+    /**
+     * 带版本号和未命中代价写入：在 {@link #putVersioned(String, Object, long, long, long, boolean)} 的基础上，
+     * 加载很快、访问又少的新key不准入（已有条目照常覆盖）
+     * @param loadMicros 该key的数据库加载耗时（微秒，见 {@link #recordLoadCost}），-1表示未知，不做准入判断
+     * @return 是否写入
+     */
+    public boolean putVersioned(String key, Object value, long ttl, long version, long token, boolean pinned, long loadMicros) {
+        boolean written = doPut(key, value, clockMillis + ttl * 1000, false, pinned, version, token, loadMicros);
+        log.debug("【内存缓存】{}数据，key={}, 版本={}, ttl={}秒", written ? "存入" : "放弃", key, version, ttl);
+        return written;
+    }
+    
+    /**
+     * 记录一次数据库加载的耗时
+     * @return 该key的平均加载耗时（微秒），作为写入时的未命中代价
+     */
+    public long recordLoadCost(String key, long loadMicros) {
+        if (loadMicros < 0) {
+            return loadCost(key);
+        }
+        if (loadCosts.size() >= loadCostCapacity && !loadCosts.containsKey(key)) {
+            trimLoadCosts();
+        }
+        return loadCosts.merge(key, loadMicros, (old, latest) -> Math.round(old + LOAD_COST_ALPHA * (latest - old)));
+    }
+    
+    /**
+     * 丢掉耗时最低的 1/16 记录，同一时间只有一个线程整理，其他线程直接写入（短暂超出容量）
+     */
+    private void trimLoadCosts() {
+        if (!loadCostTrimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int count = (int) Math.min(loadCosts.size(), loadCostCapacity / 16 + 1);
+            // 大顶堆只保留目前最便宜的 count 条
+            PriorityQueue<Map.Entry<String, Long>> cheapest =
+                new PriorityQueue<>(count + 1, Map.Entry.<String, Long>comparingByValue().reversed());
+            for (Map.Entry<String, Long> entry : loadCosts.entrySet()) {
+                cheapest.offer(entry);
+                if (cheapest.size() > count) {
+                    cheapest.poll();
+                }
+            }
+            for (Map.Entry<String, Long> entry : cheapest) {
+                loadCosts.remove(entry.getKey(), entry.getValue());
+            }
+        } finally {
+            loadCostTrimming.set(false);
+        }
+    }
+    
+    /**
+     * 该key的平均数据库加载耗时（微秒），本节点没有加载过时返回-1
+     */
+    public long loadCost(String key) {
+        Long cost = loadCosts.get(key);
+        return cost != null ? cost : -1;
+    }
+    
+    /**
+     * 按未命中代价和访问频率调整过期时间：热且贵的key乘以 max-ttl-factor，便宜且只访问过一次的乘以 min-ttl-factor
+     * @param ttl 原过期时间（秒）
+     * 和 {@link #recordRead} 一样只尝试拿 evictionLock（回放读缓冲区后读频率），拿不到就不调整，回源回写不排队等淘汰锁
+     * @param loadMicros 该key的数据库加载耗时（微秒），-1表示未知，不调整
+     * @return 调整后的过期时间（秒），至少1秒
+     */
+    public long adaptTtl(String key, long ttl, long loadMicros) {
+        if (!costAware || loadMicros < 0 || !evictionLock.tryLock()) {
+            return ttl;
+        }
+        int frequency;
+        try {
+            drainReadBuffer();
+            frequency = regionOf(key).policy.frequency(key);
+        } finally {
+            evictionLock.unlock();
+        }
+        if (frequency < 0) {
+            return ttl;
+        }
+        if (loadMicros >= expensiveLoadMicros && frequency >= hotFrequency) {
+            return Math.max(1, (long) (ttl * maxTtlFactor));
+        }
+        if (loadMicros < cheapLoadMicros && frequency <= 1) {
+            return Math.max(1, (long) (ttl * minTtlFactor));
+        }
+        return ttl;
+    }
+    
+    /**
+     * 当前删除序号，回源读取数据之前记下，回写时传给 {@link #putVersioned}
+     */
+    public long invalidationToken() {
+        return invalidationSequence.get();
+    }
+    
+    /**
+     * 写入条目
+     * @param expireTime 过期时间戳（毫秒）
+     * @param onlyIfAbsent true时key已存在则放弃写入（快照恢复不能覆盖更新的值）
+     * @param pinned true时不登记到淘汰策略，不会因容量不足被淘汰
+     * @param version 版本号，已有更高版本的条目时放弃写入
+     * @param token 大于等于0时，key在该序号之后被删除过则放弃写入；小于0为普通写入，不检查版本
+     * @param loadMicros 加载耗时（微秒），-1表示未知
+     * @return 是否写入
+     */
+    private boolean doPut(String key, Object value, long expireTime, boolean onlyIfAbsent, boolean pinned,
+                          long version, long token, long loadMicros) {
+        discardSnapshot(key);
+        Region region = regionOf(key);
+        Object stored = value;
+        // 堆外模式：在锁外完成序列化和写入；空值标记很小，留在堆上
+        if (offHeapStore != null && !(value instanceof NullValue)) {
+            stored = offHeapStore.write(value);
+            if (stored == null) {
+                // 写不进堆外内存时不缓存该值，同时丢掉旧值，避免继续返回过时数据
+                discardReplaced(key, onlyIfAbsent, version, token);
+                log.debug("【内存缓存】堆外空间不足或值过大，跳过缓存，key={}", key);
+                return false;
+            }
+        }
+        long weight = 0;
+        if (region.maximumWeight > 0 && !pinned) {
+            // 堆外模式下直接用序列化后的长度，不再重复序列化
+            weight = stored instanceof OffHeapStore.Handle ? ((OffHeapStore.Handle) stored).getLength() : weigh(value);
+            if (weight > region.maximumWeight) {
+                // 单个值超过区域的权重上限，不缓存，同时丢掉旧值
+                if (stored instanceof OffHeapStore.Handle) {
+                    offHeapStore.free((OffHeapStore.Handle) stored);
+                }
+                discardReplaced(key, onlyIfAbsent, version, token);
+                log.debug("【内存缓存】值超过区域权重上限，跳过缓存，key={}, 权重={}", key, weight);
+                return false;
+            }
+        }
+        evictionLock.lock();
+        try {
+            drainReadBuffer();
+            if (onlyIfAbsent && cache.containsKey(key) || isStale(key, version, token)
+                    || !pinned && isCheapAndRare(region, key, loadMicros)) {
+                if (stored instanceof OffHeapStore.Handle) {
+                    offHeapStore.free((OffHeapStore.Handle) stored);
+                }
+                return false;
+            }
+            CacheEntry entry = new CacheEntry(stored, expireTime, region, weight, version, loadMicros);
+            entry.timerNode = timerWheel.schedule(key, entry.expireTime);
+            CacheEntry old = cache.put(key, entry);
+            if (old != null) {
+                release(old);
+            }
+            region.weight += weight;
+            if (pinned) {
+                // 之前作为普通条目写入过，从淘汰策略中移除，避免之后被当作淘汰对象
+                region.policy.onRemove(key);
+                return true;
+            }
+            for (String evictedKey : region.policy.onWrite(key)) {
+                evict(evictedKey);
+            }
+            while (region.weight > region.maximumWeight && region.maximumWeight > 0) {
+                String victim = region.policy.evictVictim();
+                if (victim == null) {
+                    break;
+                }
+                evict(victim);
+            }
+            return true;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
     /**
      * 获取缓存
      * @param key 缓存key
@@ -72,18 +530,72 @@ public class MemoryCacheManager {
     public Object get(String key) {
         CacheEntry entry = cache.get(key);
         if (entry == null) {
+            if (snapshot != null) {
+                Object restored = restoreFromSnapshot(key);
+                if (restored != null) {
+                    return restored;
+                }
+            }
+            recordRead(key);
             log.debug("【内存缓存】未命中，key={}", key);
             return null;
         }
         
-        if (entry.isExpired()) {
-            cache.remove(key);
+        if (entry.isExpired(clockMillis)) {
+            removeEntry(key, entry);
+            recordRead(key);
             log.debug("【内存缓存】已过期，key={}", key);
             return null;
         }
         
+        Object value = entry.value;
+        if (value instanceof OffHeapStore.Handle) {
+            try {
+                value = offHeapStore.read((OffHeapStore.Handle) value);
+            } catch (IllegalStateException e) {
+                // 值无法反序列化，删除后按未命中处理，由上层重新加载
+                log.warn("【内存缓存】堆外值读取失败，删除该条目，key={}, error={}", key, e.getMessage());
+                remove(key);
+                return null;
+            }
+            if (value == null) {
+                // 读取时条目刚好被覆盖或淘汰，按未命中处理
+                return null;
+            }
+        }
+        recordRead(key);
         log.debug("【内存缓存】命中，key={}", key);
-        return entry.getValue();
+        return value;
+    }
+    
+    /**
+     * 批量获取缓存
+     * @param keys 缓存key
+     * @return 命中的key和值（不含未命中和已过期的key）
+     */
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> result = new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+        for (String key : keys) {
+            Object value = get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 获取缓存剩余存活时间
+     * @param key 缓存key
+     * @return 剩余毫秒数，不存在或已过期返回-1
+     */
+    public long getRemainingTtl(String key) {
+        CacheEntry entry = cache.get(key);
+        if (entry == null) {
+            return -1;
+        }
+        long remaining = entry.expireTime - clockMillis;
+        return remaining < 0 ? -1 : remaining;
     }
     
     /**
@@ -91,18 +603,82 @@ public class MemoryCacheManager {
      * @param key 缓存key
      */
     public void remove(String key) {
-        cache.remove(key);
+        discardSnapshot(key);
+        evictionLock.lock();
+        try {
+            CacheEntry entry = cache.remove(key);
+            if (entry != null) {
+                release(entry);
+            }
+            regionOf(key).policy.onRemove(key);
+            invalidatedAt[stripe(key)] = invalidationSequence.incrementAndGet();
+        } finally {
+            evictionLock.unlock();
+        }
         log.debug("【内存缓存】删除，key={}", key);
     }
     
+    /**
+     * 按通配符模式删除缓存（支持 * 和 ?），需要遍历所有key
+     * @param pattern 完整缓存key的模式，例如 user:*
+     * @return 删除的条目数
+     */
+    public int removeMatching(String pattern) {
+        Pattern regex = globToRegex(pattern);
+        markCleared();
+        int count = 0;
+        for (String key : cache.keySet()) {
+            if (regex.matcher(key).matches()) {
+                remove(key);
+                count++;
+            }
+        }
+        CacheSnapshot current = snapshot;
+        if (current != null) {
+            current.discardMatching(regex);
+        }
+        log.debug("【内存缓存】按模式删除，pattern={}, 删除{}个", pattern, count);
+        return count;
+    }
+    
     /**
      * 清空所有缓存
      */
     public void clear() {
-        cache.clear();
+        snapshot = null;
+        evictionLock.lock();
+        try {
+            clearedAt = invalidationSequence.incrementAndGet();
+            if (offHeapStore != null) {
+                // 逐个释放句柄，并发读取中的旧句柄会被标记为已释放，不会读到复用后的内存
+                cache.values().forEach(this::releaseOffHeap);
+            }
+            cache.clear();
+            readBuffer.clear();
+            clearRegion(defaultRegion);
+            regions.values().forEach(MemoryCacheManager::clearRegion);
+            timerWheel.clear();
+        } finally {
+            evictionLock.unlock();
+        }
         log.info("【内存缓存】已清空所有缓存");
     }
     
+    /**
+     * 设置条目被动移除（淘汰、过期）监听器，主动删除和清空不回调
+     */
+    public void setRemovalListener(RemovalListener removalListener) {
+        this.removalListener = removalListener;
+    }
+    
+    /**
+     * 是否开启堆外存储
+     * 开启时 {@link #get(String)} 每次返回新反序列化的对象，不与缓存共享引用
+     */
+    public boolean isOffHeap() {
+        return offHeapStore != null;
+    }
+    
     /**
      * 获取缓存数量
      */
@@ -111,19 +687,421 @@ public class MemoryCacheManager {
     }
     
     /**
-     * 清理过期的缓存
+     * 获取因容量不足被淘汰的条目总数
      */
-    private void cleanExpiredCache() {
-        int count = 0;
-        for (String key : cache.keySet()) {
-            CacheEntry entry = cache.get(key);
-            if (entry != null && entry.isExpired()) {
-                cache.remove(key);
-                count++;
+    public long evictionCount() {
+        return evictionCount.sum();
+    }
+    
+    /**
+     * 获取因过期被清理的条目总数
+     */
+    public long expirationCount() {
+        return expirationCount.sum();
+    }
+    
+    /**
+     * 获取内存缓存统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", cache.size());
+        stats.put("maximumSize", defaultRegion.policy.getMaximumSize());
+        stats.put("evictionCount", evictionCount.sum());
+        stats.put("expirationCount", expirationCount.sum());
+        stats.put("staleWriteCount", staleWriteCount.sum());
+        stats.put("cheapRejectionCount", cheapRejectionCount.sum());
+        evictionLock.lock();
+        try {
+            WindowTinyLfuPolicy policy = (WindowTinyLfuPolicy) defaultRegion.policy;
+            stats.put("windowSize", policy.windowSize());
+            stats.put("probationSize", policy.probationSize());
+            stats.put("protectedSize", policy.protectedSize());
+            if (!regions.isEmpty()) {
+                Map<String, Object> regionStats = new HashMap<>();
+                regions.forEach((name, region) -> regionStats.put(name, regionStats(region)));
+                stats.put("regions", regionStats);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        if (offHeapStore != null) {
+            stats.put("offHeap", offHeapStore.getStats());
+        }
+        CacheSnapshot current = snapshot;
+        stats.put("snapshotPending", current != null ? current.pendingCount() : 0);
+        return stats;
+    }
+    
+    /**
+     * 带版本号的写入是否落后：已有更高版本的条目，或key在token之后被删除过（调用方持有 evictionLock）
+     * token小于0表示普通写入，不做判断
+     */
+    private boolean isStale(String key, long version, long token) {
+        if (token < 0) {
+            return false;
+        }
+        CacheEntry current = cache.get(key);
+        boolean stale = current != null && current.version > version
+            || invalidatedAt[stripe(key)] > token || clearedAt > token;
+        if (stale) {
+            staleWriteCount.increment();
+        }
+        return stale;
+    }
+    
+    /**
+     * 未命中代价准入：加载很快、最近访问次数又少的新key不值得占用内存（调用方持有 evictionLock）
+     * 已在缓存中的key照常覆盖，否则会留下旧值
+     */
+    private boolean isCheapAndRare(Region region, String key, long loadMicros) {
+        if (!costAware || loadMicros < 0 || loadMicros >= cheapLoadMicros || cache.containsKey(key)) {
+            return false;
+        }
+        int frequency = region.policy.frequency(key);
+        if (frequency < 0 || frequency >= cheapMinFrequency) {
+            return false;
+        }
+        cheapRejectionCount.increment();
+        return true;
+    }
+    
+    /**
+     * 淘汰比较时的代价权重：按加载耗时的数量级取 1 + log2(1 + 毫秒数)，
+     * 避免一次很慢的加载压过访问频率很高的key；未知代价按1计（在淘汰策略内调用，调用方持有 evictionLock）
+     */
+    private int costWeight(String key) {
+        if (!costAware) {
+            return 1;
+        }
+        CacheEntry entry = cache.get(key);
+        if (entry == null || entry.loadMicros < 0) {
+            return 1;
+        }
+        return 64 - Long.numberOfLeadingZeros(1 + entry.loadMicros / 1000);
+    }
+    
+    private void markCleared() {
+        evictionLock.lock();
+        try {
+            clearedAt = invalidationSequence.incrementAndGet();
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    private static int stripe(String key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (INVALIDATION_STRIPES - 1);
+    }
+    
+    /**
+     * 记录一次访问（命中或未命中，未命中也计入频率），读缓冲区积累到阈值时尝试回放（拿不到锁就留给下次）
+     */
+    private void recordRead(String key) {
+        readBuffer.offer(key);
+        if (readBuffer.size() >= READ_BUFFER_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+            try {
+                drainReadBuffer();
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+    }
+    
+    /**
+     * 把读缓冲区中的访问记录回放到淘汰策略，调用方需持有 evictionLock
+     */
+    private void drainReadBuffer() {
+        String key;
+        while ((key = readBuffer.poll()) != null) {
+            regionOf(key).policy.onAccess(key);
+        }
+    }
+    
+    /**
+     * 按key中第一个冒号之前的部分（没有冒号时为整个key）找到所属区域
+     */
+    private Region regionOf(String key) {
+        if (regions.isEmpty()) {
+            return defaultRegion;
+        }
+        int separator = key.indexOf(':');
+        Region region = regions.get(separator < 0 ? key : key.substring(0, separator));
+        return region != null ? region : defaultRegion;
+    }
+    
+    /**
+     * 估算值的权重：序列化后的字节数，无法序列化时按1字节计（只受条目数限制）
+     */
+    private long weigh(Object value) {
+        if (value instanceof NullValue) {
+            return 1;
+        }
+        if (value instanceof CacheValueCopier.SerializedValue) {
+            return ((CacheValueCopier.SerializedValue) value).getBytes().length;
+        }
+        try {
+            return valueCodec.encode(value).length;
+        } catch (Exception e) {
+            return 1;
+        }
+    }
+    
+    /**
+     * 淘汰一个条目，调用方需持有 evictionLock，且key已从淘汰策略中移除
+     */
+    private void evict(String key) {
+        CacheEntry entry = cache.remove(key);
+        if (entry != null) {
+            release(entry);
+        }
+        evictionCount.increment();
+        removalListener.onRemoval(key, RemovalCause.SIZE);
+        log.debug("【内存缓存】容量已满，淘汰key={}", key);
+    }
+    
+    private static void clearRegion(Region region) {
+        region.policy.clear();
+        region.weight = 0;
+    }
+    
+    private static Map<String, Object> regionStats(Region region) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("size", region.policy.size());
+        stats.put("maximumSize", region.policy.getMaximumSize());
+        stats.put("evictionPolicy", region.policy instanceof LruPolicy ? EvictionPolicy.Type.LRU : EvictionPolicy.Type.W_TINY_LFU);
+        if (region.maximumWeight > 0) {
+            stats.put("weight", region.weight);
+            stats.put("maximumWeight", region.maximumWeight);
+        }
+        return stats;
+    }
+    
+    /**
+     * 新值缓存不下时丢掉该key的旧条目
+     * 不推进失效序号：这不是删除，不能让同段其他key进行中的回写放弃；快照恢复和落后的写入不动已有条目
+     */
+    private void discardReplaced(String key, boolean onlyIfAbsent, long version, long token) {
+        if (onlyIfAbsent) {
+            return;
+        }
+        evictionLock.lock();
+        try {
+            CacheEntry current = cache.get(key);
+            if (current == null || isStale(key, version, token)) {
+                return;
             }
+            cache.remove(key);
+            release(current);
+            current.region.policy.onRemove(key);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * 读路径发现过期时删除
+     * 仅当当前条目仍是entry时才删除，避免误删并发写入的新值
+     */
+    private boolean removeEntry(String key, CacheEntry entry) {
+        evictionLock.lock();
+        try {
+            if (cache.remove(key, entry)) {
+                release(entry);
+                entry.region.policy.onRemove(key);
+                expirationCount.increment();
+                removalListener.onRemoval(key, RemovalCause.EXPIRED);
+                return true;
+            }
+            return false;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+    
+    /**
+     * 条目离开缓存时释放时间轮节点、堆外内存和区域权重，调用方需持有 evictionLock
+     */
+    private void release(CacheEntry entry) {
+        timerWheel.deschedule(entry.timerNode);
+        releaseOffHeap(entry);
+        entry.region.weight -= entry.weight;
+    }
+    
+    private void releaseOffHeap(CacheEntry entry) {
+        if (entry.value instanceof OffHeapStore.Handle) {
+            offHeapStore.free((OffHeapStore.Handle) entry.value);
+        }
+    }
+    
+    /**
+     * 启动时打开快照文件，并定时写入新快照
+     */
+    @PostConstruct
+    public void initSnapshot() {
+        if (!snapshotEnabled) {
+            return;
+        }
+        try {
+            snapshot = CacheSnapshot.open(Paths.get(snapshotPath), snapshotMaxAgeSeconds * 1000, System.currentTimeMillis());
+            if (snapshot != null) {
+                log.info("【内存缓存快照】已加载快照索引，可恢复条目={}，值将在首次访问时加载", snapshot.pendingCount());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("【内存缓存快照】加载快照失败，冷启动，path={}", snapshotPath, e);
+        }
+        snapshotScheduler.scheduleWithFixedDelay(this::writeSnapshot,
+            snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * 停机时写入最后一次快照
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        snapshotScheduler.shutdownNow();
+        if (snapshotEnabled) {
+            writeSnapshot();
+        }
+    }
+    
+    /**
+     * 把当前未过期的条目（连同尚未加载的旧快照条目）写入快照文件，空值标记不写入
+     * @return 写入的条目数，失败返回-1
+     */
+    public int writeSnapshot() {
+        long start = System.currentTimeMillis();
+        List<CacheSnapshot.Entry> entries = new ArrayList<>();
+        try {
+            long now = System.currentTimeMillis();
+            for (Map.Entry<String, CacheEntry> e : cache.entrySet()) {
+                CacheEntry entry = e.getValue();
+                Object value = entry.value;
+                if (entry.isExpired(now) || value instanceof NullValue) {
+                    continue;
+                }
+                try {
+                    if (value instanceof OffHeapStore.Handle) {
+                        value = offHeapStore.read((OffHeapStore.Handle) value);
+                        if (value == null) {
+                            continue;
+                        }
+                    }
+                    entries.add(new CacheSnapshot.Entry(e.getKey(), entry.expireTime, valueCodec.encode(value)));
+                } catch (Exception ex) {
+                    log.debug("【内存缓存快照】条目无法序列化，跳过，key={}", e.getKey());
+                }
+            }
+            CacheSnapshot current = snapshot;
+            if (current != null) {
+                current.forEachPending(now, pending -> {
+                    if (!cache.containsKey(pending.getKey())) {
+                        entries.add(pending);
+                    }
+                });
+            }
+            Path path = Paths.get(snapshotPath);
+            long bytes = CacheSnapshot.write(path, entries, now);
+            log.info("【内存缓存快照】已写入快照，条目={}，大小={}KB，耗时={}ms",
+                entries.size(), bytes / 1024, System.currentTimeMillis() - start);
+            return entries.size();
+        } catch (IOException | RuntimeException e) {
+            log.warn("【内存缓存快照】写入快照失败，path={}", snapshotPath, e);
+            return -1;
+        }
+    }
+    
+    /**
+     * 从快照中恢复一个条目，按原过期时间写回缓存
+     */
+    private Object restoreFromSnapshot(String key) {
+        CacheSnapshot current = snapshot;
+        CacheSnapshot.Entry entry = current.take(key, clockMillis);
+        if (entry == null) {
+            return null;
+        }
+        Object value;
+        try {
+            value = valueCodec.decode(entry.getValue());
+        } catch (Exception e) {
+            log.debug("【内存缓存快照】条目反序列化失败，忽略，key={}", key);
+            return null;
+        }
+        if (!doPut(key, value, entry.getExpireTime(), true, false, 0, -1, -1)) {
+            // 恢复期间已有新值写入，以新值为准
+            return null;
+        }
+        log.debug("【内存缓存快照】从快照恢复，key={}", key);
+        return value;
+    }
+    
+    /**
+     * 通配符转正则：* 匹配任意字符串，? 匹配单个字符，其余字符按字面匹配
+     */
+    static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+    
+    /**
+     * key被重新写入或删除时，快照中的旧值作废
+     */
+    private void discardSnapshot(String key) {
+        CacheSnapshot current = snapshot;
+        if (current != null) {
+            current.discard(key);
+        }
+    }
+    
+    /**
+     * 推进时间轮，清理到期的缓存
+     * 每个过期条目O(1)处理，不再全量扫描
+     */
+    private void expireEntries() {
+        int count;
+        evictionLock.lock();
+        try {
+            count = timerWheel.advance(clockMillis, node -> {
+                CacheEntry entry = cache.get(node.getKey());
+                // 时间轮节点与当前条目一致才删除（条目被覆盖时旧节点已摘除，这里只是兜底）
+                if (entry != null && entry.timerNode == node) {
+                    cache.remove(node.getKey());
+                    release(entry);
+                    entry.region.policy.onRemove(node.getKey());
+                    expirationCount.increment();
+                    removalListener.onRemoval(node.getKey(), RemovalCause.EXPIRED);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("【内存缓存】时间轮清理过期缓存失败", e);
+            return;
+        } finally {
+            evictionLock.unlock();
+        }
+        CacheSnapshot current = snapshot;
+        if (current != null && current.isExhausted(clockMillis)) {
+            snapshot = null;
+            log.info("【内存缓存快照】快照条目已全部加载或过期，释放快照");
         }
         if (count > 0) {
-            log.info("【内存缓存】定时清理，移除{}个过期缓存，剩余{}个", count, cache.size());
+            log.debug("【内存缓存】定时清理，移除{}个过期缓存，剩余{}个", count, cache.size());
         }
     }
 }
@@ -0,0 +1,259 @@
+package org.example.framework.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 堆外存储（slab分配器）
+ * <p>
+ * 值序列化后写入直接内存（DirectByteBuffer）中的slab，堆上只保留 {@link Handle}（slab + 偏移 + 长度），
+ * 大量缓存数据不再占用堆内存，也不会拉长GC停顿。
+ * <ul>
+ *     <li>slab按需申请，总量不超过capacity；每个slab切成同一规格的chunk，规格从64字节起按2倍递增</li>
+ *     <li>释放的chunk回到所在slab的空闲列表；slab完全空闲后归还到空slab池，可以改切成其他规格，避免规格间内存失衡</li>
+ *     <li>单个值超过slab大小或空间不足时写入失败，由调用方决定降级</li>
+ * </ul>
+ * 读写通过读写锁保护：读取只拷贝字节，并检查句柄是否已释放，不会读到被复用的chunk。
+ */
+@Slf4j
+public class OffHeapStore {
+
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    /**
+     * 堆外值句柄
+     */
+    public static final class Handle {
+        private final Slab slab;
+        private final int offset;
+        private final int length;
+        private volatile boolean freed;
+
+        private Handle(Slab slab, int offset, int length) {
+            this.slab = slab;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        /**
+         * 序列化后的字节数
+         */
+        public int getLength() {
+            return length;
+        }
+    }
+
+    /**
+     * 一块直接内存，切成同一规格的chunk
+     */
+    private static final class Slab {
+        private final ByteBuffer buffer;
+        private int sizeClass = -1;
+        private int[] freeOffsets;
+        private int freeCount;
+        private int chunkCount;
+
+        private Slab(int slabSize) {
+            this.buffer = ByteBuffer.allocateDirect(slabSize);
+        }
+    }
+
+    private final CacheValueCodec codec = new CacheValueCodec();
+
+    private final int slabSize;
+    private final int maxSlabs;
+    private final int[] chunkSizes;
+
+    private final List<Slab> slabs = new ArrayList<>();
+    private final ArrayDeque<Slab> emptySlabs = new ArrayDeque<>();
+
+    /**
+     * 每个规格下还有空闲chunk的slab
+     */
+    private final List<ArrayDeque<Slab>> partialSlabs = new ArrayList<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long usedBytes;
+    private long dataBytes;
+    private final LongAdder allocationFailures = new LongAdder();
+
+    /**
+     * @param capacityBytes 堆外内存上限（字节）
+     * @param slabSize 单个slab大小（字节），同时也是单个值的大小上限
+     */
+    public OffHeapStore(long capacityBytes, int slabSize) {
+        this.slabSize = Math.max(MIN_CHUNK_SIZE, slabSize);
+        this.maxSlabs = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacityBytes / this.slabSize));
+        List<Integer> sizes = new ArrayList<>();
+        for (long size = MIN_CHUNK_SIZE; size < this.slabSize; size <<= 1) {
+            sizes.add((int) size);
+        }
+        sizes.add(this.slabSize);
+        this.chunkSizes = sizes.stream().mapToInt(Integer::intValue).toArray();
+        for (int i = 0; i < chunkSizes.length; i++) {
+            partialSlabs.add(new ArrayDeque<>());
+        }
+    }
+
+    /**
+     * 序列化并写入堆外内存
+     * @return 句柄；值无法序列化、超过slab大小或空间不足时返回null
+     */
+    public Handle write(Object value) {
+        byte[] bytes;
+        try {
+            bytes = codec.encode(value);
+        } catch (Exception e) {
+            log.warn("【堆外缓存】序列化失败，type={}, error={}", value.getClass().getName(), e.getMessage());
+            allocationFailures.increment();
+            return null;
+        }
+        int sizeClass = sizeClassOf(bytes.length);
+        if (sizeClass < 0) {
+            allocationFailures.increment();
+            return null;
+        }
+        lock.writeLock().lock();
+        try {
+            Slab slab = slabFor(sizeClass);
+            if (slab == null) {
+                allocationFailures.increment();
+                return null;
+            }
+            int offset = slab.freeOffsets[--slab.freeCount];
+            if (slab.freeCount == 0) {
+                partialSlabs.get(sizeClass).remove(slab);
+            }
+            slab.buffer.put(offset, bytes, 0, bytes.length);
+            usedBytes += chunkSizes[sizeClass];
+            dataBytes += bytes.length;
+            return new Handle(slab, offset, bytes.length);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取并反序列化
+     * @return 值；句柄已释放返回null
+     */
+    public Object read(Handle handle) {
+        byte[] bytes = new byte[handle.length];
+        lock.readLock().lock();
+        try {
+            if (handle.freed) {
+                return null;
+            }
+            handle.slab.buffer.get(handle.offset, bytes, 0, bytes.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            return codec.decode(bytes);
+        } catch (Exception e) {
+            throw new IllegalStateException("堆外缓存反序列化失败", e);
+        }
+    }
+
+    /**
+     * 释放句柄占用的chunk
+     */
+    public void free(Handle handle) {
+        if (handle == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (handle.freed) {
+                return;
+            }
+            handle.freed = true;
+            Slab slab = handle.slab;
+            int sizeClass = slab.sizeClass;
+            if (slab.freeCount == 0) {
+                partialSlabs.get(sizeClass).addLast(slab);
+            }
+            slab.freeOffsets[slab.freeCount++] = handle.offset;
+            usedBytes -= chunkSizes[sizeClass];
+            dataBytes -= handle.length;
+            // slab完全空闲：归还到空slab池，可重新切成其他规格
+            if (slab.freeCount == slab.chunkCount) {
+                partialSlabs.get(sizeClass).remove(slab);
+                slab.sizeClass = -1;
+                slab.freeOffsets = null;
+                emptySlabs.addLast(slab);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 堆外内存统计（字节）
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("capacityBytes", (long) maxSlabs * slabSize);
+            stats.put("reservedBytes", (long) slabs.size() * slabSize);
+            stats.put("usedBytes", usedBytes);
+            stats.put("dataBytes", dataBytes);
+            stats.put("slabSize", slabSize);
+            stats.put("slabCount", slabs.size());
+            stats.put("emptySlabCount", emptySlabs.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        stats.put("allocationFailures", allocationFailures.sum());
+        return stats;
+    }
+
+    /**
+     * 取一个该规格下有空闲chunk的slab：优先已切好的，其次空slab，最后申请新的直接内存
+     */
+    private Slab slabFor(int sizeClass) {
+        Slab slab = partialSlabs.get(sizeClass).peekFirst();
+        if (slab != null) {
+            return slab;
+        }
+        slab = emptySlabs.pollFirst();
+        if (slab == null) {
+            if (slabs.size() >= maxSlabs) {
+                return null;
+            }
+            slab = new Slab(slabSize);
+            slabs.add(slab);
+        }
+        int chunkSize = chunkSizes[sizeClass];
+        int chunkCount = slabSize / chunkSize;
+        slab.sizeClass = sizeClass;
+        slab.chunkCount = chunkCount;
+        slab.freeOffsets = new int[chunkCount];
+        // 倒序入栈，分配时从低地址开始
+        for (int i = 0; i < chunkCount; i++) {
+            slab.freeOffsets[i] = (chunkCount - 1 - i) * chunkSize;
+        }
+        slab.freeCount = chunkCount;
+        partialSlabs.get(sizeClass).addLast(slab);
+        return slab;
+    }
+
+    private int sizeClassOf(int length) {
+        for (int i = 0; i < chunkSizes.length; i++) {
+            if (length <= chunkSizes[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.framework.cache;
+
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 基于Redis位图的布隆过滤器
+ * <p>
+ * 位图放在Redis里，所有节点共享，某个节点新增的数据其他节点立即可见，不会出现"刚注册的用户在别的节点查不到"。
+ * 第0位是"已初始化"标记：全量构建完成后才置1，未初始化（或Redis被清空）时一律返回"可能存在"，
+ * 保证布隆过滤器只会放行多余的请求，不会误拦真实数据。
+ * 判断和写入都用pipeline，一次往返完成。
+ */
+public class RedisBloomFilter {
+
+    private static final long READY_BIT = 0;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final byte[] rawKey;
+    private final String key;
+    private final long numBits;
+    private final int numHashFunctions;
+
+    /**
+     * @param stringRedisTemplate Redis模板
+     * @param key 位图在Redis中的key
+     * @param expectedInsertions 预计元素数量
+     * @param fpp 期望误判率
+     */
+    public RedisBloomFilter(StringRedisTemplate stringRedisTemplate, String key, long expectedInsertions, double fpp) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.key = key;
+        this.rawKey = key.getBytes(StandardCharsets.UTF_8);
+        long n = Math.max(1, expectedInsertions);
+        // m = -n*ln(p)/(ln2)^2, k = m/n*ln2
+        this.numBits = Math.max(64, (long) (-n * Math.log(fpp) / (Math.log(2) * Math.log(2))));
+        this.numHashFunctions = Math.max(1, (int) Math.round((double) numBits / n * Math.log(2)));
+    }
+
+    /**
+     * 判断元素是否可能存在
+     * @return false=一定不存在；true=可能存在（或过滤器尚未初始化）
+     */
+    public boolean mightContain(String value) {
+        long[] offsets = offsets(value);
+        List<Object> bits = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.stringCommands().getBit(rawKey, READY_BIT);
+            for (long offset : offsets) {
+                connection.stringCommands().getBit(rawKey, offset);
+            }
+            return null;
+        });
+        if (!Boolean.TRUE.equals(bits.get(0))) {
+            return true;
+        }
+        for (int i = 1; i < bits.size(); i++) {
+            if (!Boolean.TRUE.equals(bits.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 添加单个元素
+     */
+    public void add(String value) {
+        long[] offsets = offsets(value);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            setBits(connection, offsets);
+            return null;
+        });
+    }
+
+    /**
+     * 批量添加元素
+     */
+    public void addAll(Collection<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (String value : values) {
+                if (value != null) {
+                    setBits(connection, offsets(value));
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 全量构建完成后调用，之后 {@link #mightContain(String)} 才会返回"一定不存在"
+     */
+    public void markReady() {
+        stringRedisTemplate.opsForValue().setBit(key, READY_BIT, true);
+    }
+
+    /**
+     * 是否已完成全量构建
+     */
+    public boolean isReady() {
+        return Boolean.TRUE.equals(stringRedisTemplate.opsForValue().getBit(key, READY_BIT));
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    private void setBits(RedisConnection connection, long[] offsets) {
+        for (long offset : offsets) {
+            connection.stringCommands().setBit(rawKey, offset, true);
+        }
+    }
+
+    /**
+     * 双重哈希计算k个位偏移（跳过第0位的初始化标记）
+     */
+    private long[] offsets(String value) {
+        long hash1 = fnv1a64(value.getBytes(StandardCharsets.UTF_8));
+        long hash2 = mix64(hash1);
+        long[] offsets = new long[numHashFunctions];
+        long range = numBits - 1;
+        for (int i = 0; i < numHashFunctions; i++) {
+            long combined = hash1 + i * hash2;
+            offsets[i] = 1 + Math.floorMod(combined, range);
+        }
+        return offsets;
+    }
+
+    private static long fnv1a64(byte[] bytes) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
@@ -0,0 +1,306 @@
+package org.example.framework.cache;
+
+import io.lettuce.core.RedisException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.PoolException;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Redis缓存层熔断器
+ * <p>
+ * 按秒分桶统计最近 window-seconds 秒内Redis调用的失败率和慢调用率，调用数达到 minimum-calls 且任一比例超过阈值时熔断（OPEN）。
+ * 熔断期间切面直接跳过Redis，走内存缓存或数据库；open-seconds 秒后放行一个探测请求（HALF_OPEN），
+ * 探测成功且不慢则恢复（CLOSED），否则继续熔断。
+ * 只有Redis访问异常（超时、连接失败、连接池耗尽）计为失败，序列化等异常照常抛给调用方。
+ * 异步调用在Future完成时统计，耗时同样计入慢调用。
+ */
+@Component
+@Slf4j
+public class RedisCircuitBreaker {
+
+    /**
+     * 熔断器状态
+     */
+    public enum State {
+        /** 正常访问Redis */
+        CLOSED,
+        /** 熔断，跳过Redis */
+        OPEN,
+        /** 放行一个探测请求 */
+        HALF_OPEN
+    }
+
+    private static final long BUCKET_MILLIS = 1000;
+
+    @Value("${cache.redis.circuit-breaker.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache.redis.circuit-breaker.window-seconds:10}")
+    private int windowSeconds;
+
+    /**
+     * 窗口内调用数达到该值才判断是否熔断，避免低流量时一两次失败就熔断
+     */
+    @Value("${cache.redis.circuit-breaker.minimum-calls:20}")
+    private long minimumCalls;
+
+    @Value("${cache.redis.circuit-breaker.failure-rate-threshold:50}")
+    private int failureRateThreshold;
+
+    /**
+     * 耗时超过该值（毫秒）的调用计为慢调用
+     */
+    @Value("${cache.redis.circuit-breaker.slow-call-millis:200}")
+    private long slowCallMillis;
+
+    @Value("${cache.redis.circuit-breaker.slow-call-rate-threshold:80}")
+    private int slowCallRateThreshold;
+
+    /**
+     * 熔断后多久放行探测请求（秒）
+     */
+    @Value("${cache.redis.circuit-breaker.open-seconds:5}")
+    private long openSeconds;
+
+    private volatile State state = State.CLOSED;
+
+    /**
+     * 进入OPEN或开始探测的时间
+     */
+    private volatile long stateChangedAt = System.currentTimeMillis();
+
+    /**
+     * 以下窗口状态在 synchronized 中访问，下标为 (时间/1秒) % 桶数
+     */
+    private long[] bucketStart;
+    private long[] calls;
+    private long[] failures;
+    private long[] slowCalls;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder openCount = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        int buckets = Math.max(1, windowSeconds);
+        bucketStart = new long[buckets];
+        calls = new long[buckets];
+        failures = new long[buckets];
+        slowCalls = new long[buckets];
+    }
+
+    /**
+     * 在熔断保护下访问Redis
+     * @param action Redis调用
+     * @param fallback 熔断或Redis访问失败时的返回值
+     */
+    public <T> T execute(Supplier<T> action, T fallback) {
+        if (!enabled) {
+            return action.get();
+        }
+        if (!allowRequest()) {
+            rejected.increment();
+            return fallback;
+        }
+        long start = System.nanoTime();
+        try {
+            T result = action.get();
+            onSuccess((System.nanoTime() - start) / 1_000_000);
+            return result;
+        } catch (DataAccessException | PoolException e) {
+            onFailure();
+            log.warn("【Redis熔断】Redis访问失败，降级处理：{}", e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * 在熔断保护下发起异步Redis访问
+     * @param action 发起异步调用
+     * @param fallback 熔断或Redis访问失败时的结果
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> action, T fallback) {
+        if (!enabled) {
+            return action.get();
+        }
+        if (!allowRequest()) {
+            rejected.increment();
+            return CompletableFuture.completedFuture(fallback);
+        }
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = action.get();
+        } catch (DataAccessException | PoolException | RedisException e) {
+            onFailure();
+            log.warn("【Redis熔断】Redis访问失败，降级处理：{}", e.getMessage());
+            return CompletableFuture.completedFuture(fallback);
+        }
+        return future.handle((result, error) -> {
+            if (error == null) {
+                onSuccess((System.nanoTime() - start) / 1_000_000);
+                return result;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof DataAccessException || cause instanceof PoolException
+                    || cause instanceof RedisException || cause instanceof TimeoutException) {
+                onFailure();
+                log.warn("【Redis熔断】Redis访问失败，降级处理：{}", cause.toString());
+                return fallback;
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+        });
+    }
+
+    /**
+     * 熔断或探测中（此时不应再发起可以省掉的Redis访问，如加载租约）
+     */
+    public boolean isOpen() {
+        return enabled && state != State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * 熔断器状态和窗口统计
+     */
+    public synchronized Map<String, Object> snapshot() {
+        long[] totals = windowTotals(System.currentTimeMillis());
+        long totalCalls = totals[0];
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", enabled);
+        result.put("state", state);
+        result.put("stateChangedAt", stateChangedAt);
+        result.put("windowCalls", totalCalls);
+        result.put("failureRate", totalCalls > 0 ? totals[1] * 100.0 / totalCalls : 0.0);
+        result.put("slowCallRate", totalCalls > 0 ? totals[2] * 100.0 / totalCalls : 0.0);
+        result.put("rejected", rejected.sum());
+        result.put("openCount", openCount.sum());
+        return result;
+    }
+
+    private boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - stateChangedAt < openSeconds * 1000) {
+            return false;
+        }
+        synchronized (this) {
+            // OPEN到期，或上一个探测请求超过open-seconds仍未返回结果：放行一个新的探测请求
+            if (state != State.CLOSED && now - stateChangedAt >= openSeconds * 1000) {
+                if (state == State.OPEN) {
+                    log.info("【Redis熔断】熔断{}秒后放行探测请求", openSeconds);
+                }
+                state = State.HALF_OPEN;
+                stateChangedAt = now;
+                return true;
+            }
+            return state == State.CLOSED;
+        }
+    }
+
+    private synchronized void onSuccess(long costMillis) {
+        boolean slow = costMillis >= slowCallMillis;
+        if (state == State.HALF_OPEN) {
+            if (slow) {
+                open("探测请求耗时" + costMillis + "ms");
+            } else {
+                close();
+            }
+            return;
+        }
+        record(false, slow);
+    }
+
+    private synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open("探测请求失败");
+            return;
+        }
+        record(true, false);
+    }
+
+    /**
+     * 记录一次调用并判断是否需要熔断
+     */
+    private void record(boolean failed, boolean slow) {
+        if (state != State.CLOSED) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long start = now - now % BUCKET_MILLIS;
+        int index = (int) ((now / BUCKET_MILLIS) % calls.length);
+        if (bucketStart[index] != start) {
+            bucketStart[index] = start;
+            calls[index] = 0;
+            failures[index] = 0;
+            slowCalls[index] = 0;
+        }
+        calls[index]++;
+        if (failed) {
+            failures[index]++;
+        }
+        if (slow) {
+            slowCalls[index]++;
+        }
+
+        long[] totals = windowTotals(now);
+        long totalCalls = totals[0];
+        long totalFailures = totals[1];
+        long totalSlow = totals[2];
+        if (totalCalls < minimumCalls) {
+            return;
+        }
+        if (totalFailures * 100 >= totalCalls * failureRateThreshold) {
+            open(String.format("失败率%d%%（%d/%d）", totalFailures * 100 / totalCalls, totalFailures, totalCalls));
+        } else if (totalSlow * 100 >= totalCalls * slowCallRateThreshold) {
+            open(String.format("慢调用率%d%%（%d/%d，阈值%dms）", totalSlow * 100 / totalCalls, totalSlow, totalCalls, slowCallMillis));
+        }
+    }
+
+    private void open(String reason) {
+        state = State.OPEN;
+        stateChangedAt = System.currentTimeMillis();
+        openCount.increment();
+        log.warn("【Redis熔断】熔断Redis缓存层{}秒，原因：{}", openSeconds, reason);
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        stateChangedAt = System.currentTimeMillis();
+        Arrays.fill(bucketStart, 0);
+        log.info("【Redis熔断】探测成功，恢复访问Redis");
+    }
+
+    /**
+     * 窗口内的 {调用数, 失败数, 慢调用数}
+     */
+    private long[] windowTotals(long now) {
+        long[] totals = new long[3];
+        for (int i = 0; i < calls.length; i++) {
+            if (now - bucketStart[i] < calls.length * BUCKET_MILLIS) {
+                totals[0] += calls[i];
+                totals[1] += failures[i];
+                totals[2] += slowCalls[i];
+            }
+        }
+        return totals;
+    }
+}
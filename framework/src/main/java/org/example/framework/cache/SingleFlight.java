@@ -0,0 +1,110 @@
+package org.example.framework.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+
+/**
+ * 单飞（请求合并）
+ * 同一个key同一时刻只允许一个线程执行加载，其余线程等待同一个Future的结果，
+ * 防止热点key过期瞬间大量请求同时打到数据库（缓存击穿）
+ */
+public class SingleFlight {
+
+    /**
+     * 加载逻辑，允许抛出任意异常（与 ProceedingJoinPoint.proceed() 一致）
+     */
+    @FunctionalInterface
+    public interface Loader {
+        Object load() throws Throwable;
+    }
+
+    /**
+     * 异步加载逻辑，返回加载结果的Future
+     */
+    @FunctionalInterface
+    public interface AsyncLoader {
+        CompletableFuture<Object> load() throws Throwable;
+    }
+
+    /**
+     * 正在进行中的加载
+     */
+    private final ConcurrentHashMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 执行加载：第一个到达的线程负责加载，其余线程等待结果
+     *
+     * @param key 合并的key
+     * @param timeoutMillis 等待者最长等待时间（毫秒）
+     * @param loader 加载逻辑
+     * @param shareCopy 等待者拿到结果前做的处理（例如深拷贝，避免多个调用方共享同一个对象）
+     * @return 加载结果
+     * @throws TimeoutException 等待超时，调用方可自行降级
+     */
+    public Object execute(String key, long timeoutMillis, Loader loader, UnaryOperator<Object> shareCopy) throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing == null) {
+            try {
+                Object value = loader.load();
+                future.complete(value);
+                return value;
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+                throw t;
+            } finally {
+                inFlight.remove(key, future);
+            }
+        }
+
+        try {
+            return shareCopy.apply(existing.get(timeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * 异步执行加载：第一个到达的调用发起加载，其余调用拿到同一次加载的结果，不占用等待线程
+     *
+     * @param key 合并的key
+     * @param loader 加载逻辑
+     * @param shareCopy 其余调用拿到结果前做的处理
+     * @return 加载结果的Future
+     */
+    public CompletableFuture<Object> executeAsync(String key, AsyncLoader loader, UnaryOperator<Object> shareCopy) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.thenApply(shareCopy);
+        }
+        CompletableFuture<Object> loaded;
+        try {
+            loaded = loader.load();
+        } catch (Throwable t) {
+            loaded = CompletableFuture.failedFuture(t);
+        }
+        return loaded.whenComplete((value, error) -> {
+            inFlight.remove(key, future);
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(value);
+            }
+        });
+    }
+
+    /**
+     * 当前正在加载的key数量
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,178 @@
+package org.example.framework.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 按过期时间把key挂到不同层级的桶里：第0层每桶约1秒，往上每层跨度扩大64倍，最后一层兜底超长TTL。
+ * 添加、删除都是O(1)；推进时间时只处理到期的桶，高层桶到期后把未过期的节点降级重新挂到低层。
+ * 非线程安全，由 {@link MemoryCacheManager} 在写锁内调用。
+ */
+public class TimerWheel {
+
+    /**
+     * 每层桶的时间跨度（毫秒）取2的幂，便于移位计算：约1秒、65秒、70分钟、3天、199天
+     */
+    private static final int[] SHIFT = {10, 16, 22, 28, 34};
+
+    private static final int[] BUCKETS = {64, 64, 64, 64, 1};
+
+    /**
+     * 时间轮节点，挂在某个桶的双向循环链表上
+     */
+    public static final class Node {
+        private final String key;
+        private final long expireTime;
+        private Node prev;
+        private Node next;
+
+        private Node(String key, long expireTime) {
+            this.key = key;
+            this.expireTime = expireTime;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getExpireTime() {
+            return expireTime;
+        }
+    }
+
+    private final Node[][] wheel;
+
+    private long currentTime;
+
+    public TimerWheel(long currentTime) {
+        this.currentTime = currentTime;
+        this.wheel = new Node[BUCKETS.length][];
+        for (int level = 0; level < BUCKETS.length; level++) {
+            wheel[level] = new Node[BUCKETS[level]];
+            for (int i = 0; i < BUCKETS[level]; i++) {
+                wheel[level][i] = newSentinel();
+            }
+        }
+    }
+
+    /**
+     * 登记一个key的过期时间
+     * @return 时间轮节点，删除时传给 {@link #deschedule(Node)}
+     */
+    public Node schedule(String key, long expireTime) {
+        Node node = new Node(key, expireTime);
+        link(findBucket(expireTime), node);
+        return node;
+    }
+
+    /**
+     * 取消登记（key被删除、覆盖或淘汰时调用）
+     */
+    public void deschedule(Node node) {
+        if (node != null && node.next != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * 把时间推进到now，对已过期的节点回调onExpire
+     * @return 过期的节点数
+     */
+    public int advance(long now, Consumer<Node> onExpire) {
+        long previousTime = currentTime;
+        currentTime = now;
+        int count = 0;
+        for (int level = 0; level < SHIFT.length; level++) {
+            long previousTicks = previousTime >>> SHIFT[level];
+            long currentTicks = now >>> SHIFT[level];
+            if (currentTicks <= previousTicks) {
+                break;
+            }
+            count += expire(level, previousTicks, currentTicks - previousTicks, onExpire);
+        }
+        return count;
+    }
+
+    /**
+     * 清空所有节点
+     */
+    public void clear() {
+        for (Node[] buckets : wheel) {
+            for (Node sentinel : buckets) {
+                Node node = sentinel.next;
+                while (node != sentinel) {
+                    Node next = node.next;
+                    node.prev = null;
+                    node.next = null;
+                    node = next;
+                }
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 处理某一层中从上次推进到本次推进之间经过的桶
+     */
+    private int expire(int level, long previousTicks, long delta, Consumer<Node> onExpire) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int steps = (int) Math.min(delta + 1, buckets.length);
+        int start = (int) (previousTicks & mask);
+        int count = 0;
+        for (int i = 0; i < steps; i++) {
+            Node sentinel = buckets[(start + i) & mask];
+            // 先把整条链摘下来，避免重新挂回同一个桶时死循环
+            Node node = sentinel.next;
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            while (node != sentinel) {
+                Node next = node.next;
+                node.prev = null;
+                node.next = null;
+                if (node.expireTime <= currentTime) {
+                    onExpire.accept(node);
+                    count++;
+                } else {
+                    link(findBucket(node.expireTime), node);
+                }
+                node = next;
+            }
+        }
+        return count;
+    }
+
+    private Node findBucket(long expireTime) {
+        long delay = Math.max(0, expireTime - currentTime);
+        for (int level = 0; level < SHIFT.length - 1; level++) {
+            if (delay < (1L << SHIFT[level + 1])) {
+                long ticks = Math.max(expireTime, currentTime) >>> SHIFT[level];
+                return wheel[level][(int) (ticks & (BUCKETS[level] - 1))];
+            }
+        }
+        return wheel[SHIFT.length - 1][0];
+    }
+
+    private static Node newSentinel() {
+        Node sentinel = new Node(null, 0);
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+
+    private static void link(Node sentinel, Node node) {
+        node.prev = sentinel.prev;
+        node.next = sentinel;
+        sentinel.prev.next = node;
+        sentinel.prev = node;
+    }
+
+    private static void unlink(Node node) {
+        node.prev.next = node.next;
+        node.next.prev = node.prev;
+        node.prev = null;
+        node.next = null;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.framework.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 过期时间随机抖动
+ * 在基础TTL上随机增加 0 ~ 抖动上限 秒，让同一批写入的缓存分散过期，避免缓存雪崩
+ */
+public final class TtlJitter {
+
+    private TtlJitter() {
+    }
+
+    /**
+     * 计算加抖动后的过期时间
+     *
+     * @param ttlSeconds 基础过期时间（秒）
+     * @param jitterPercent 抖动上限占基础TTL的百分比，0表示不按百分比抖动
+     * @param jitterSeconds 抖动上限（秒），0表示不按绝对值抖动；两者都配置时取较大值
+     * @return 基础TTL + [0, 抖动上限] 的随机秒数
+     */
+    public static long apply(long ttlSeconds, int jitterPercent, long jitterSeconds) {
+        long maxJitter = Math.max(ttlSeconds * Math.max(0, jitterPercent) / 100, Math.max(0, jitterSeconds));
+        if (ttlSeconds <= 0 || maxJitter <= 0) {
+            return ttlSeconds;
+        }
+        return ttlSeconds + ThreadLocalRandom.current().nextLong(maxJitter + 1);
+    }
+}
@@ -0,0 +1,276 @@
+package org.example.framework.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * W-TinyLFU 淘汰策略
+ * <p>
+ * 结构：窗口区LRU（约1%容量）+ 主区SLRU（试用区 probation + 保护区 protected，保护区占主区80%）
+ * 新key先进入窗口区；窗口区溢出的key作为候选者，与试用区队头的淘汰者比较TinyLFU频率，频率高者留下。
+ * 可选按未命中代价加权：比较的是 频率 × 代价权重，重新加载很慢的key更容易留下。
+ * 所有操作都是O(1)，非线程安全，由 {@link MemoryCacheManager} 在写锁内调用。
+ */
+public class WindowTinyLfuPolicy implements EvictionPolicy {
+
+    private enum Queue { WINDOW, PROBATION, PROTECTED }
+
+    /**
+     * 双向链表节点
+     */
+    private static final class Node {
+        private final String key;
+        private Queue queue;
+        private Node prev;
+        private Node next;
+
+        private Node(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * 简单的访问顺序双向链表：队头最久未访问，队尾最近访问
+     */
+    private static final class AccessOrderDeque {
+        private Node head;
+        private Node tail;
+        private int size;
+
+        private void addLast(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        private void moveToLast(Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final AccessOrderDeque window = new AccessOrderDeque();
+    private final AccessOrderDeque probation = new AccessOrderDeque();
+    private final AccessOrderDeque protectedDeque = new AccessOrderDeque();
+    private final FrequencySketch sketch;
+    private final ToIntFunction<String> costWeigher;
+
+    private final long maximumSize;
+    private final long windowMaximum;
+    private final long mainMaximum;
+    private final long protectedMaximum;
+
+    /**
+     * @param maximumSize 最大条目数
+     */
+    public WindowTinyLfuPolicy(long maximumSize) {
+        this(maximumSize, key -> 1);
+    }
+
+    /**
+     * @param maximumSize 最大条目数
+     * @param costWeigher key的未命中代价权重（不小于1），准入比较时与频率相乘
+     */
+    public WindowTinyLfuPolicy(long maximumSize, ToIntFunction<String> costWeigher) {
+        this.costWeigher = costWeigher;
+        this.maximumSize = Math.max(1, maximumSize);
+        this.windowMaximum = Math.max(1, this.maximumSize / 100);
+        this.mainMaximum = this.maximumSize - windowMaximum;
+        this.protectedMaximum = mainMaximum * 8 / 10;
+        this.sketch = new FrequencySketch(this.maximumSize);
+    }
+
+    @Override
+    public void onAccess(String key) {
+        sketch.increment(key);
+        Node node = nodes.get(key);
+        if (node == null) {
+            return;
+        }
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                // 试用区再次被访问，晋升到保护区
+                probation.remove(node);
+                node.queue = Queue.PROTECTED;
+                protectedDeque.addLast(node);
+                demoteProtectedOverflow();
+                break;
+            default:
+                protectedDeque.moveToLast(node);
+                break;
+        }
+    }
+
+    @Override
+    public List<String> onWrite(String key) {
+        if (nodes.containsKey(key)) {
+            onAccess(key);
+            return new ArrayList<>(0);
+        }
+        sketch.increment(key);
+        Node node = new Node(key);
+        node.queue = Queue.WINDOW;
+        nodes.put(key, node);
+        window.addLast(node);
+
+        List<String> evicted = new ArrayList<>(1);
+        while (window.size > windowMaximum) {
+            Node candidate = window.head;
+            window.remove(candidate);
+            admit(candidate, evicted);
+        }
+        return evicted;
+    }
+
+    @Override
+    public void onRemove(String key) {
+        Node node = nodes.remove(key);
+        if (node != null) {
+            dequeOf(node).remove(node);
+        }
+    }
+
+    @Override
+    public int frequency(String key) {
+        return sketch.frequency(key);
+    }
+
+    public boolean contains(String key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * 依次从试用区、窗口区、保护区的队头（最久未访问）选出淘汰者
+     */
+    @Override
+    public String evictVictim() {
+        AccessOrderDeque deque = probation.head != null ? probation
+            : window.head != null ? window : protectedDeque;
+        Node victim = deque.head;
+        if (victim == null) {
+            return null;
+        }
+        deque.remove(victim);
+        nodes.remove(victim.key);
+        return victim.key;
+    }
+
+    @Override
+    public int size() {
+        return nodes.size();
+    }
+
+    @Override
+    public void clear() {
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedDeque.clear();
+        sketch.clear();
+    }
+
+    @Override
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int windowSize() {
+        return window.size;
+    }
+
+    public int probationSize() {
+        return probation.size;
+    }
+
+    public int protectedSize() {
+        return protectedDeque.size;
+    }
+
+    /**
+     * 窗口区淘汰出来的候选者尝试进入主区
+     * 主区未满直接进入试用区；已满则与试用区队头（淘汰者）比较 频率 × 代价权重，输的一方被淘汰
+     */
+    private void admit(Node candidate, List<String> evicted) {
+        if (probation.size + protectedDeque.size < mainMaximum) {
+            candidate.queue = Queue.PROBATION;
+            probation.addLast(candidate);
+            return;
+        }
+        AccessOrderDeque victimDeque = probation.head != null ? probation : protectedDeque;
+        Node victim = victimDeque.head;
+        if (victim == null || score(candidate.key) <= score(victim.key)) {
+            nodes.remove(candidate.key);
+            evicted.add(candidate.key);
+            return;
+        }
+        victimDeque.remove(victim);
+        nodes.remove(victim.key);
+        evicted.add(victim.key);
+        candidate.queue = Queue.PROBATION;
+        probation.addLast(candidate);
+    }
+
+    private long score(String key) {
+        return (long) sketch.frequency(key) * costWeigher.applyAsInt(key);
+    }
+
+    /**
+     * 保护区超出上限时，把最久未访问的节点降级回试用区
+     */
+    private void demoteProtectedOverflow() {
+        while (protectedDeque.size > protectedMaximum) {
+            Node demoted = protectedDeque.head;
+            protectedDeque.remove(demoted);
+            demoted.queue = Queue.PROBATION;
+            probation.addLast(demoted);
+        }
+    }
+
+    private AccessOrderDeque dequeOf(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                return window;
+            case PROBATION:
+                return probation;
+            default:
+                return protectedDeque;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example.framework.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    /**
+     * Micrometer 指标注册中心
+     * <p>
+     * 项目未引入 actuator 时提供一个内存版的注册中心，缓存等组件的指标统一注册到这里；
+     * 接入具体监控系统（Prometheus等）时声明对应的 MeterRegistry 即可替换。
+     *
+     * @return MeterRegistry
+     */
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    public MeterRegistry meterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
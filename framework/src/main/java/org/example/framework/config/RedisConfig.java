@@ -1,27 +1,85 @@
 package org.example.framework.config;
 
 
+import org.example.framework.cache.BinaryCodec;
+import org.example.framework.cache.BinaryRedisSerializer;
+import org.example.framework.cache.BinaryTypeRegistrar;
+import org.example.framework.cache.CompressingRedisSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
+
+    @Value("${cache.redis.compression.enabled:false}")
+    private boolean compressionEnabled;
+
+    @Value("${cache.redis.compression.threshold-bytes:1024}")
+    private int compressionThreshold;
+
+    @Value("${cache.redis.compression.level:1}")
+    private int compressionLevel;
+
+    @Value("${cache.redis.compression.max-raw-bytes:67108864}")
+    private int compressionMaxRawBytes;
+
     /**
      * RedisTemplate 配置
      * <p>
      * 该方法配置了 RedisTemplate 的序列化方式，使用 String 序列化器处理 key，
      * 使用 JSON 序列化器处理 value，以便于存储和读取对象。
+     * 压缩值总能读取；开启 cache.redis.compression.enabled 时，超过阈值的 value 才压缩后写入。
+     * 未部署读取支持的旧节点读不了压缩值，须等所有节点升级后再开启。
+     * 二进制编码的 value 也能读取（由 binaryRedisTemplate 写入）。
+     *
+     * @param factory RedisConnectionFactory
+     * @param binaryCodec 二进制编码
+     * @return RedisTemplate<String, Object>
+     */
+    @Bean
+    @Primary
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory, BinaryCodec binaryCodec) {
+        return buildTemplate(factory, binaryCodec, false);
+    }
+
+    /**
+     * 写入时使用二进制编码的 RedisTemplate，供 value-format 为 binary 的缓存区域使用
+     * 读取规则与 redisTemplate 相同，两者写入的值可以互相读取
      *
      * @param factory RedisConnectionFactory
+     * @param binaryCodec 二进制编码
      * @return RedisTemplate<String, Object>
      */
     @Bean
+    public RedisTemplate<String, Object> binaryRedisTemplate(RedisConnectionFactory factory, BinaryCodec binaryCodec) {
+        return buildTemplate(factory, binaryCodec, true);
+    }
+
+    /**
+     * 二进制编码，登记所有 {@link BinaryTypeRegistrar} 提供的类型
+     *
+     * @param registrars 类型登记
+     * @return BinaryCodec
+     */
+    @Bean
+    public BinaryCodec binaryCodec(ObjectProvider<BinaryTypeRegistrar> registrars) {
+        BinaryCodec codec = new BinaryCodec();
+        registrars.orderedStream().forEach(registrar -> registrar.registerTypes(codec));
+        return codec;
+    }
+
     @SuppressWarnings("all")
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
+    private RedisTemplate<String, Object> buildTemplate(RedisConnectionFactory factory, BinaryCodec binaryCodec,
+                                                        boolean writeBinary) {
         // 创建 RedisTemplate 对象
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         // 设置连接工厂
@@ -33,15 +91,22 @@ public class RedisConfig {
         // 创建 JSON 序列化器
         GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
 
+        // 二进制编码（读取时按头字节识别，JSON 值原样交给 JSON 序列化器）
+        RedisSerializer<Object> valueSerializer = new BinaryRedisSerializer(binaryCodec, jsonRedisSerializer, writeBinary);
+
+        // 大 value 压缩（读取时按头字节识别，未压缩的旧值原样交给内层序列化器）；关闭时仍能读取其他节点写入的压缩值
+        valueSerializer = new CompressingRedisSerializer(valueSerializer, compressionThreshold, compressionLevel,
+            compressionEnabled, compressionMaxRawBytes);
+
         // ---- 设置序列化规则 ----
 
         // 1. 设置 key 的序列化方式为 String
         template.setKeySerializer(stringRedisSerializer);
         template.setHashKeySerializer(stringRedisSerializer);
 
-        // 2. 设置 value 的序列化方式为 JSON
-        template.setValueSerializer(jsonRedisSerializer);
-        template.setHashValueSerializer(jsonRedisSerializer);
+        // 2. 设置 value 的序列化方式为 JSON/二进制（可选压缩）
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer);
 
         // 初始化 RedisTemplate
         template.afterPropertiesSet();
@@ -49,4 +114,19 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Redis 消息监听容器
+     * <p>
+     * 用于订阅 pub/sub 频道（例如内存缓存跨节点失效广播）。
+     *
+     * @param factory RedisConnectionFactory
+     * @return RedisMessageListenerContainer
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+
 }
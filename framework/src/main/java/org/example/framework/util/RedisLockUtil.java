@@ -72,6 +72,15 @@ public class RedisLockUtil {
         }
     }
     
+    /**
+     * 判断锁是否仍被持有
+     * @param lockKey 锁的key
+     * @return true=锁存在
+     */
+    public boolean isLocked(String lockKey) {
+        return Boolean.TRUE.equals(stringRedisTemplate.hasKey(lockKey));
+    }
+    
     /**
      * 生成唯一的锁值（使用UUID）
      * @return UUID字符串
@@ -2,20 +2,22 @@ package org.example.job;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.common.util.AESUtil;
+import org.example.framework.cache.CacheRedisTemplates;
+import org.example.framework.cache.CacheVersions;
+import org.example.framework.cache.TtlJitter;
 import org.example.framework.util.RedisLockUtil;
 import org.example.pojo.entity.User;
 import org.example.service.UserService;
+import org.example.service.impl.UserServiceImpl;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 /**
  * 定时查询所有用户并更新Redis缓存
@@ -32,7 +34,10 @@ public class SelectAllUsersJob implements Job {
     private RedisLockUtil redisLockUtil;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private CacheRedisTemplates cacheRedisTemplates;
+
+    @Autowired
+    private CacheVersions cacheVersions;
 
     @Autowired
     private AESUtil aesUtil;
@@ -57,14 +62,18 @@ public class SelectAllUsersJob implements Job {
         try {
             log.info("🔒 [SelectAllUsersJob] 获取锁成功，开始刷新用户缓存");
 
-            // 1. 从数据库查询所有用户（加密数据）
+            // 1. 从数据库查询所有用户（加密数据），查询前记下版本号
+            String cacheKey = UserServiceImpl.ALL_USERS_CACHE_KEY;
+            CacheVersions.Stamp stamp = cacheVersions.stamp(cacheKey);
             List<User> users = userService.selectAllUser();
             log.info("📊 [SelectAllUsersJob] 从数据库查询到 {} 个用户", users.size());
 
-            // 2. 更新Redis缓存（存储加密数据）
-            String cacheKey = "allUsers";
-            redisTemplate.opsForValue().set(cacheKey, users, 600, TimeUnit.SECONDS);
-            log.info("✅ [SelectAllUsersJob] Redis缓存已更新: key={}, 过期时间=600秒", cacheKey);
+            // 2. 更新Redis缓存（存储加密数据），过期时间与注解一致（含 staleTtl）并加随机抖动；查询期间缓存被删除过则不写入
+            long expireTime = TtlJitter.apply(UserServiceImpl.ALL_USERS_EXPIRE_TIME + UserServiceImpl.ALL_USERS_STALE_TTL,
+                UserServiceImpl.ALL_USERS_JITTER_PERCENT, 0);
+            if (cacheVersions.setIfCurrent(cacheRedisTemplates.forKey(cacheKey), cacheKey, users, expireTime, stamp)) {
+                log.info("✅ [SelectAllUsersJob] Redis缓存已更新: key={}, 过期时间={}秒", cacheKey, expireTime);
+            }
 
         } catch (Exception e) {
             log.error("❌ [SelectAllUsersJob] 定时任务执行失败", e);
@@ -28,6 +28,13 @@ public interface UserMapper {
      */
     List<String> selectUsernames(List<String> usernames);
 
+    /**
+     * 按用户名批量查询用户
+     * @param usernames 用户名列表
+     * @return 存在的用户列表（不保证顺序）
+     */
+    List<User> selectByUsernames(List<String> usernames);
+
     /**
      * 批量插入用户数据
      * @param userList 待插入的用户列表
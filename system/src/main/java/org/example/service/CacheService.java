@@ -5,6 +5,7 @@ import org.example.pojo.entity.User;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 缓存服务接口
@@ -16,6 +17,16 @@ public interface CacheService {
      */
     User getUserByUsername(String username);
     
+    /**
+     * 根据用户名异步查询用户（使用三重缓存，与 getUserByUsername 共用缓存）
+     */
+    CompletableFuture<User> getUserByUsernameAsync(String username);
+    
+    /**
+     * 按用户名批量查询用户（使用三重缓存，按传入顺序返回，不存在的用户不出现在结果中）
+     */
+    List<User> getUsersByUsernames(List<String> usernames);
+    
     /**
      * 查询所有用户（使用三重缓存）
      */
@@ -36,6 +47,32 @@ public interface CacheService {
      */
     void clearAllUsersCache();
     
+    /**
+     * 批量清空用户缓存（同时清空用户列表缓存），用于批量导入等写操作之后
+     */
+    void evictUsers(List<String> usernames);
+    
+    /**
+     * 从MySQL重新加载用户并写入两级缓存
+     */
+    User refreshUserCache(String username);
+    
+    /**
+     * 按前缀分页列出缓存key（SCAN游标，首页传0）
+     */
+    Map<String, Object> scanCacheKeys(String prefix, String cursor, int count);
+    
+    /**
+     * 按前缀抽样缓存key的剩余过期时间和内存占用
+     */
+    Map<String, Object> sampleCacheKeys(String prefix, int limit);
+    
+    /**
+     * 按前缀批量失效两级缓存（包括所有节点的内存缓存）
+     * @return 执行结果，已有批量失效在执行时返回null
+     */
+    Map<String, Object> invalidateCachePrefix(String prefix);
+    
     /**
      * 获取缓存统计信息
      */
@@ -5,15 +5,27 @@ import lombok.extern.slf4j.Slf4j;
 import org.example.mapper.UserMapper;
 import org.example.pojo.entity.User;
 import org.example.service.CacheService;
+import org.example.common.annotation.CopyStrategy;
 import org.example.common.annotation.MultiLevelCache;
+import org.example.common.annotation.MultiLevelCacheBatch;
+import org.example.common.annotation.MultiLevelCacheEvict;
+import org.example.common.annotation.MultiLevelCachePut;
+import org.example.framework.cache.CacheKeyScanner;
+import org.example.framework.cache.CacheMetrics;
+import org.example.framework.cache.CacheVersions;
+import org.example.framework.cache.CacheWriteBehind;
+import org.example.framework.cache.HotKeyDetector;
 import org.example.framework.cache.MemoryCacheManager;
+import org.example.framework.cache.RedisCircuitBreaker;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * 缓存服务实现类
@@ -34,7 +46,29 @@ public class CacheServiceImpl implements CacheService {
     private MemoryCacheManager memoryCacheManager;
     
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private CacheMetrics cacheMetrics;
+    
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
+    
+    @Autowired
+    private CacheWriteBehind cacheWriteBehind;
+    
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+    
+    @Autowired
+    private CacheVersions cacheVersions;
+    
+    @Autowired
+    private CacheKeyScanner cacheKeyScanner;
+    
+    /**
+     * Spring Boot 默认的任务线程池，异步查询在其中访问MySQL
+     */
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private Executor taskExecutor;
     
     /**
      * 根据用户名查询用户
@@ -42,23 +76,58 @@ public class CacheServiceImpl implements CacheService {
      * prefix = "user"           -> 缓存key前缀
      * key = "#username"         -> 使用方法参数username作为key
      * expireTime = 1800         -> 缓存30分钟
+     * cacheNull + bloomFilter   -> 不存在的用户名由布隆过滤器和空值标记拦截，不会反复查询MySQL
      * 最终的缓存key为：user:实际用户名
      * 例如：user:jack
      */
     @Override
-    @MultiLevelCache(prefix = "user", key = "#username", expireTime = 1800)//切面查询内存--》redis--》mysql
+    @MultiLevelCache(prefix = "user", key = "#username", expireTime = 1800, singleFlight = true,
+            cacheNull = true, bloomFilter = UserBloomFilterInitializer.USERNAME_BLOOM_FILTER,
+            copyStrategy = CopyStrategy.FIELD_CLONE, jitterPercent = 10)//切面查询内存--》redis--》mysql
     public User getUserByUsername(String username) {
         // 这里只负责从MySQL查询，缓存由AOP自动处理
         log.info("【Service】从MySQL查询用户，username={}", username);
         return userMapper.SelectByUsername(username);
     }
     
+    /**
+     * 根据用户名异步查询用户
+     * 返回CompletableFuture时切面缓存的是其结果：内存命中直接返回已完成的Future，
+     * Redis用异步命令查询，未命中时MySQL查询在任务线程池中执行，调用线程不等待
+     * 与 getUserByUsername 使用相同的前缀和配置，两者共用 user:用户名 缓存
+     */
+    @Override
+    @MultiLevelCache(prefix = "user", key = "#username", expireTime = 1800, singleFlight = true,
+            cacheNull = true, bloomFilter = UserBloomFilterInitializer.USERNAME_BLOOM_FILTER,
+            copyStrategy = CopyStrategy.FIELD_CLONE, jitterPercent = 10)
+    public CompletableFuture<User> getUserByUsernameAsync(String username) {
+        return CompletableFuture.supplyAsync(() -> {
+            log.info("【Service】异步从MySQL查询用户，username={}", username);
+            return userMapper.SelectByUsername(username);
+        }, taskExecutor);
+    }
+    
+    /**
+     * 按用户名批量查询用户
+     * @MultiLevelCacheBatch 与 getUserByUsername 使用相同的前缀和值类型，两者共用 user:用户名 缓存；
+     * 切面只会用内存和Redis都未命中的用户名调用本方法，一次IN查询完成
+     */
+    @Override
+    @MultiLevelCacheBatch(prefix = "user", keyField = "username", expireTime = 1800, cacheNull = true,
+            copyStrategy = CopyStrategy.FIELD_CLONE, jitterPercent = 10)
+    public List<User> getUsersByUsernames(List<String> usernames) {
+        log.info("【Service】从MySQL批量查询用户，数量={}", usernames.size());
+        return userMapper.selectByUsernames(usernames);
+    }
+    
     /**
      * 查询所有用户
      * 缓存key固定为：allUsers
      */
     @Override
-    @MultiLevelCache(prefix = "", key = "allUsers", expireTime = 600)
+    @MultiLevelCache(prefix = "", key = UserServiceImpl.ALL_USERS_CACHE_KEY, expireTime = UserServiceImpl.ALL_USERS_EXPIRE_TIME,
+            singleFlight = true, distributedLoad = true, copyStrategy = CopyStrategy.FIELD_CLONE, refreshAfter = 480,
+            staleTtl = UserServiceImpl.ALL_USERS_STALE_TTL, jitterPercent = UserServiceImpl.ALL_USERS_JITTER_PERCENT)
     public List<User> getAllUsers() {
         // 这里只负责从MySQL查询，缓存由AOP自动处理
         log.info("【Service】从MySQL查询所有用户");
@@ -70,7 +139,7 @@ public class CacheServiceImpl implements CacheService {
      * 缓存key为：userId:123
      */
     @Override
-    @MultiLevelCache(prefix = "userId", key = "#userId", expireTime = 1800)
+    @MultiLevelCache(prefix = "userId", key = "#userId", expireTime = 1800, jitterPercent = 10)
     public User getUserById(Long userId) {
         // 这里只负责从MySQL查询，缓存由AOP自动处理
         log.info("【Service】从MySQL查询用户，userId={}", userId);
@@ -84,32 +153,71 @@ public class CacheServiceImpl implements CacheService {
      * 手动清理缓存的场景：当用户信息更新时，需要清空缓存
      */
     @Override
+    @MultiLevelCacheEvict(prefix = "user", keys = "#username")
     public void clearUserCache(String username) {
-        String cacheKey = "user:" + username;
-        
-        // 清空内存缓存
-        memoryCacheManager.remove(cacheKey);
-        log.info("【清空缓存】已清空内存缓存，key={}", cacheKey);
-        
-        // 清空Redis缓存
-        redisTemplate.delete(cacheKey);
-        log.info("【清空缓存】已清空Redis缓存，key={}", cacheKey);
+        // 内存缓存（所有节点）和Redis缓存由AOP删除
+        log.info("【清空缓存】清空用户缓存，username={}", username);
     }
     
     /**
      * 清空所有用户列表缓存
      */
     @Override
+    @MultiLevelCacheEvict(keys = "allUsers")
     public void clearAllUsersCache() {
-        String cacheKey = "allUsers";
-        
-        // 清空内存缓存
-        memoryCacheManager.remove(cacheKey);
-        log.info("【清空缓存】已清空内存缓存，key={}", cacheKey);
-        
-        // 清空Redis缓存
-        redisTemplate.delete(cacheKey);
-        log.info("【清空缓存】已清空Redis缓存，key={}", cacheKey);
+        log.info("【清空缓存】清空用户列表缓存");
+    }
+    
+    /**
+     * 批量清空用户缓存
+     * keys = "#usernames" 会展开为每个用户名对应的 user:用户名
+     */
+    @Override
+    @MultiLevelCacheEvict(prefix = "user", keys = "#usernames")
+    @MultiLevelCacheEvict(keys = "allUsers")
+    public void evictUsers(List<String> usernames) {
+        log.info("【清空缓存】批量清空用户缓存，数量={}", usernames.size());
+    }
+    
+    /**
+     * 从MySQL重新加载用户
+     * @MultiLevelCachePut 总是执行方法，并把结果写入Redis和内存缓存（其他节点的旧内存缓存会被删除）
+     */
+    @Override
+    @MultiLevelCachePut(prefix = "user", key = "#username", expireTime = 1800,
+            copyStrategy = CopyStrategy.FIELD_CLONE, jitterPercent = 10)
+    public User refreshUserCache(String username) {
+        log.info("【Service】从MySQL重新加载用户，username={}", username);
+        return userMapper.SelectByUsername(username);
+    }
+    
+    /**
+     * 按前缀分页列出缓存key
+     * 用SCAN游标遍历，不使用KEYS，不会阻塞Redis
+     */
+    @Override
+    public Map<String, Object> scanCacheKeys(String prefix, String cursor, int count) {
+        log.info("【缓存管理】按前缀列出缓存key，prefix={}, cursor={}", prefix, cursor);
+        return cacheKeyScanner.scan(prefix, cursor, count);
+    }
+    
+    /**
+     * 按前缀抽样缓存key的剩余过期时间和内存占用
+     */
+    @Override
+    public Map<String, Object> sampleCacheKeys(String prefix, int limit) {
+        log.info("【缓存管理】按前缀抽样缓存key，prefix={}, limit={}", prefix, limit);
+        return cacheKeyScanner.sample(prefix, limit);
+    }
+    
+    /**
+     * 按前缀批量失效两级缓存
+     * Redis中分批UNLINK，批与批之间暂停；所有节点删除匹配的内存缓存
+     */
+    @Override
+    public Map<String, Object> invalidateCachePrefix(String prefix) {
+        log.info("【缓存管理】按前缀批量失效缓存，prefix={}", prefix);
+        return cacheKeyScanner.invalidate(prefix);
     }
     
     /**
@@ -121,9 +229,23 @@ public class CacheServiceImpl implements CacheService {
         
         // 内存缓存统计
         stats.put("memoryCacheSize", memoryCacheManager.size());
+        stats.put("memoryCacheEvictionCount", memoryCacheManager.evictionCount());
+        stats.put("memoryCacheDetail", memoryCacheManager.getStats());
+        
+        // 按缓存名称分组的各层命中率、加载次数和加载耗时分布
+        stats.put("caches", cacheMetrics.snapshot());
+        
+        // 本节点当前的热点key
+        stats.put("hotKeys", hotKeyDetector.snapshot());
+        
+        // 异步回写队列（dropped为队列满丢弃的回写数）
+        stats.put("writeBehind", cacheWriteBehind.snapshot());
+        
+        // Redis缓存层熔断器状态
+        stats.put("redisCircuitBreaker", redisCircuitBreaker.snapshot());
         
-        // Redis缓存统计（示例）
-        stats.put("redisCacheInfo", "Redis缓存统计信息");
+        // 因版本号已变被放弃的回写数（内存缓存的在memoryCacheDetail.staleWriteCount）
+        stats.put("versionRejectedCount", cacheVersions.rejectedCount());
         
         log.info("【缓存统计】{}", stats);
         return stats;
@@ -0,0 +1,24 @@
+package org.example.service.impl;
+
+import org.example.framework.cache.BinaryCodec;
+import org.example.framework.cache.BinaryTypeRegistrar;
+import org.example.pojo.entity.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户缓存的二进制编码类型登记
+ * 类型id和字段顺序一旦上线就不能修改：新增字段追加到末尾，删除字段用null占位
+ */
+@Component
+public class UserBinaryTypes implements BinaryTypeRegistrar {
+
+    /**
+     * User 的类型id
+     */
+    public static final int USER_TYPE_ID = 1;
+
+    @Override
+    public void registerTypes(BinaryCodec codec) {
+        codec.register(USER_TYPE_ID, User.class, "username", "password", "email", "phone", "identityCard");
+    }
+}
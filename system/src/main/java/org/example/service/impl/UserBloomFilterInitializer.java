@@ -0,0 +1,71 @@
+package org.example.service.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.framework.cache.BloomFilterRegistry;
+import org.example.framework.cache.RedisBloomFilter;
+import org.example.framework.util.RedisLockUtil;
+import org.example.mapper.UserMapper;
+import org.example.pojo.entity.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 用户名布隆过滤器初始化
+ * 启动时如果Redis中的布隆过滤器还没有构建，则从MySQL加载全部用户名构建一次；
+ * 之后新增用户由 UserServiceImpl 增量写入，多个节点共享同一个位图
+ */
+@Component
+@Slf4j
+public class UserBloomFilterInitializer implements ApplicationRunner {
+
+    /**
+     * 用户名布隆过滤器名称
+     */
+    public static final String USERNAME_BLOOM_FILTER = "username";
+
+    @Autowired
+    private BloomFilterRegistry bloomFilterRegistry;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private RedisLockUtil redisLockUtil;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            RedisBloomFilter filter = bloomFilterRegistry.getOrCreate(USERNAME_BLOOM_FILTER);
+            if (filter.isReady()) {
+                log.info("【布隆过滤器】用户名布隆过滤器已存在，跳过构建");
+                return;
+            }
+
+            // 多个节点同时启动时只需要一个节点构建
+            String lockKey = "lock:bloom:" + USERNAME_BLOOM_FILTER;
+            String lockValue = redisLockUtil.generateLockValue();
+            if (!redisLockUtil.tryLock(lockKey, lockValue, 300)) {
+                log.info("【布隆过滤器】其他节点正在构建用户名布隆过滤器");
+                return;
+            }
+            try {
+                List<String> usernames = userMapper.selectAllUser().stream()
+                        .map(User::getUsername)
+                        .collect(Collectors.toList());
+                filter.addAll(usernames);
+                filter.markReady();
+                log.info("【布隆过滤器】用户名布隆过滤器构建完成，共{}个用户名", usernames.size());
+            } finally {
+                redisLockUtil.unlock(lockKey, lockValue);
+            }
+        } catch (Exception e) {
+            // 构建失败不影响启动，未就绪的布隆过滤器对所有查询放行
+            log.error("【布隆过滤器】用户名布隆过滤器构建失败: {}", e.getMessage());
+        }
+    }
+}
@@ -2,15 +2,19 @@ package org.example.service.impl;
 
 import com.alibaba.excel.EasyExcel;
 import lombok.extern.slf4j.Slf4j;
+import org.example.common.annotation.CopyStrategy;
 import org.example.common.annotation.MultiLevelCache;
+import org.example.common.annotation.MultiLevelCacheEvict;
 import org.example.common.model.Response;
 import org.example.common.model.Result;
 import org.example.common.util.AESUtil;
+import org.example.framework.cache.BloomFilterRegistry;
 import org.example.framework.service.EmailService;
 import org.example.framework.service.SmsService;
 import org.example.mapper.UserMapper;
 import org.example.pojo.dto.*;
 import org.example.pojo.entity.User;
+import org.example.service.CacheService;
 import org.example.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
@@ -25,6 +29,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class UserServiceImpl implements UserService {
 
+    /**
+     * 用户列表缓存：key、过期时间（秒）、过期后仍可返回旧值的时间（秒）、过期时间抖动百分比
+     * 定时刷新任务直接写Redis，与注解使用同一组值
+     */
+    public static final String ALL_USERS_CACHE_KEY = "allUsers";
+    public static final long ALL_USERS_EXPIRE_TIME = 600;
+    public static final long ALL_USERS_STALE_TTL = 120;
+    public static final int ALL_USERS_JITTER_PERCENT = 10;
+
     @Autowired
     private RedisTemplate redisTemplate;
 
@@ -40,14 +53,32 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private AESUtil aesUtil;
 
+    @Autowired
+    private BloomFilterRegistry bloomFilterRegistry;
+
+    @Autowired
+    private CacheService cacheService;
+
     @Override
     public User SelectByUsername(String username) {
-
+        // 布隆过滤器判定不存在的用户名直接返回，不查询数据库（登录、注册都会走这里）
+        if (!bloomFilterRegistry.mightContain(UserBloomFilterInitializer.USERNAME_BLOOM_FILTER, username)) {
+            log.info("【布隆过滤器】用户名不存在，跳过MySQL查询：{}", username);
+            return null;
+        }
         return userMapper.SelectByUsername(username);
     }
 
+    /**
+     * 注册用户
+     * 入库后删除可能存在的空值标记，并让用户列表缓存失效
+     */
     @Override
+    @MultiLevelCacheEvict(prefix = "user", keys = "#user.username")
+    @MultiLevelCacheEvict(keys = "allUsers")
     public void InsertUser(User user) {
+        // 先写布隆过滤器再入库：入库失败只会多一个误判，反过来则会让新用户被判定为不存在
+        bloomFilterRegistry.getOrCreate(UserBloomFilterInitializer.USERNAME_BLOOM_FILTER).add(user.getUsername());
         userMapper.InsertUser(user);
     }
 
@@ -57,12 +88,20 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
-    @MultiLevelCache(prefix = "", key = "allUsers", expireTime = 600)
+    @MultiLevelCache(prefix = "", key = ALL_USERS_CACHE_KEY, expireTime = ALL_USERS_EXPIRE_TIME, singleFlight = true,
+            distributedLoad = true, copyStrategy = CopyStrategy.FIELD_CLONE, refreshAfter = 480,
+            staleTtl = ALL_USERS_STALE_TTL, jitterPercent = ALL_USERS_JITTER_PERCENT)
     public List<User> selectAllUser() {
         return userMapper.selectAllUser();
     }
 
+    /**
+     * 更新用户信息
+     * 更新成功后删除用户缓存和用户列表缓存，1秒后再删一次用户缓存，清掉更新期间并发查询回写的旧值
+     */
     @Override
+    @MultiLevelCacheEvict(prefix = "user", keys = "#userMessageUpdateDTO.username", delayedDoubleDeleteMillis = 1000)
+    @MultiLevelCacheEvict(keys = "allUsers")
     public void updateUserMessage(UserMessageUpdateDTO userMessageUpdateDTO) {
         userMapper.updateUserMessage(userMessageUpdateDTO);
     }
@@ -148,8 +187,11 @@ public class UserServiceImpl implements UserService {
                 }
             });
 
-            // 4. 批量入库
+            // 4. 写入布隆过滤器后批量入库，并清除可能存在的空值标记
+            List<String> usernames = userList.stream().map(User::getUsername).collect(Collectors.toList());
+            bloomFilterRegistry.getOrCreate(UserBloomFilterInitializer.USERNAME_BLOOM_FILTER).addAll(usernames);
             int successCount = userMapper.batchInsert(userList);
+            cacheService.evictUsers(usernames);
             log.info("Excel导入完成，总条数：{}，成功入库：{}", userList.size(), successCount);
             return Result.success("导入成功，共" + successCount + "条数据");
 
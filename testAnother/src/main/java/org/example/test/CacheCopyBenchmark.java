@@ -0,0 +1,79 @@
+package org.example.test;
+
+import lombok.Data;
+import org.example.common.annotation.CopyStrategy;
+import org.example.framework.cache.CacheValueCopier;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+/*
+*
+* 多级缓存命中路径的拷贝开销对比
+* 模拟 allUsers（1000个用户，密码/身份证为较长的Base64密文）在内存缓存命中时，各拷贝策略的单次耗时
+*
+*/
+public class CacheCopyBenchmark {
+
+    private static final int USER_COUNT = 1000;
+    private static final int WARMUP_ROUNDS = 2000;
+    private static final int MEASURE_ROUNDS = 2000;
+
+    @Data
+    public static class BenchUser {
+        private String username;
+        private String password;
+        private String email;
+        private String phone;
+        private String identityCard;
+    }
+
+    public static void main(String[] args) {
+        List<BenchUser> users = buildUsers();
+        CacheValueCopier copier = new CacheValueCopier();
+
+        for (CopyStrategy strategy : CopyStrategy.values()) {
+            // 与切面一致：写入内存缓存时转换一次，命中时 fromMemory
+            Object stored = copier.toMemory(strategy, users);
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                copier.fromMemory(strategy, stored);
+            }
+            long start = System.nanoTime();
+            Object sink = null;
+            for (int i = 0; i < MEASURE_ROUNDS; i++) {
+                sink = copier.fromMemory(strategy, stored);
+            }
+            long costNanos = (System.nanoTime() - start) / MEASURE_ROUNDS;
+            System.out.printf("%-12s 每次命中耗时: %,10d ns  (%s)%n", strategy, costNanos,
+                ((List<?>) sink).size() == USER_COUNT ? "ok" : "error");
+        }
+    }
+
+    private static List<BenchUser> buildUsers() {
+        Random random = new Random(42);
+        List<BenchUser> users = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            BenchUser user = new BenchUser();
+            user.setUsername("user" + i);
+            user.setPassword(randomCipher(random, 32));
+            user.setEmail("user" + i + "@example.com");
+            user.setPhone("138" + String.format("%08d", i));
+            user.setIdentityCard(randomCipher(random, 48));
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * 生成与 AESUtil 加密结果格式一致的 IV:密文 字符串
+     */
+    private static String randomCipher(Random random, int length) {
+        byte[] iv = new byte[12];
+        byte[] cipher = new byte[length];
+        random.nextBytes(iv);
+        random.nextBytes(cipher);
+        return Base64.getEncoder().encodeToString(iv) + ":" + Base64.getEncoder().encodeToString(cipher);
+    }
+}
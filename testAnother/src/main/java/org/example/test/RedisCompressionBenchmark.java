@@ -0,0 +1,152 @@
+package org.example.test;
+
+import lombok.Data;
+import org.example.framework.cache.BinaryCodec;
+import org.example.framework.cache.BinaryRedisSerializer;
+import org.example.framework.cache.CompressingRedisSerializer;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/*
+*
+* Redis 值编码（JSON / 二进制）和压缩的带宽、延迟对比
+* 模拟 allUsers（1000个用户，密码/身份证为较长的Base64密文），分别用 JSON、压缩JSON、二进制、压缩二进制 序列化：
+* 1. 本地：序列化后大小、序列化/反序列化耗时
+* 2. Redis（参数 host port，默认 127.0.0.1 6379，连不上则跳过）：GET + 反序列化的往返耗时和每次传输的字节数
+*
+*/
+public class RedisCompressionBenchmark {
+
+    private static final int USER_COUNT = 1000;
+    private static final int WARMUP_ROUNDS = 300;
+    private static final int MEASURE_ROUNDS = 500;
+    private static final int REDIS_ROUNDS = 300;
+
+    @Data
+    public static class BenchUser {
+        private String username;
+        private String password;
+        private String email;
+        private String phone;
+        private String identityCard;
+    }
+
+    public static void main(String[] args) {
+        List<BenchUser> users = buildUsers();
+        GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+        RedisSerializer<Object> compressed = new CompressingRedisSerializer(json, 1024, 1);
+
+        BinaryCodec codec = new BinaryCodec();
+        codec.register(1, BenchUser.class, "username", "password", "email", "phone", "identityCard");
+        RedisSerializer<Object> binary = new BinaryRedisSerializer(codec, json, true);
+        RedisSerializer<Object> compressedBinary = new CompressingRedisSerializer(binary, 1024, 1);
+
+        Map<String, RedisSerializer<Object>> serializers = new LinkedHashMap<>();
+        serializers.put("JSON", json);
+        serializers.put("压缩JSON", compressed);
+        serializers.put("二进制", binary);
+        serializers.put("压缩二进制", compressedBinary);
+
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        int jsonLength = json.serialize(users).length;
+        for (Map.Entry<String, RedisSerializer<Object>> entry : serializers.entrySet()) {
+            byte[] bytes = entry.getValue().serialize(users);
+            payloads.put(entry.getKey(), bytes);
+            System.out.printf("%-10s 大小: %,10d 字节  (%.1f%%)%n", entry.getKey(), bytes.length, bytes.length * 100.0 / jsonLength);
+        }
+        System.out.println();
+
+        serializers.forEach((name, serializer) -> measureLocal(name, serializer, users, payloads.get(name)));
+        System.out.println();
+
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 6379;
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(host, port);
+        factory.afterPropertiesSet();
+        try (RedisConnection connection = factory.getConnection()) {
+            for (String name : serializers.keySet()) {
+                measureRedis(connection, name, serializers.get(name), payloads.get(name));
+                connection.keyCommands().del(key(name));
+            }
+        } catch (RuntimeException e) {
+            System.out.println("连接Redis失败，跳过Redis往返测试: " + e.getMessage());
+        } finally {
+            factory.destroy();
+        }
+    }
+
+    private static void measureLocal(String name, RedisSerializer<Object> serializer, Object value, byte[] bytes) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            serializer.deserialize(serializer.serialize(value));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            serializer.serialize(value);
+        }
+        long serializeNanos = (System.nanoTime() - start) / MEASURE_ROUNDS;
+        start = System.nanoTime();
+        Object sink = null;
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            sink = serializer.deserialize(bytes);
+        }
+        long deserializeNanos = (System.nanoTime() - start) / MEASURE_ROUNDS;
+        System.out.printf("%-10s 序列化: %,10d ns  反序列化: %,10d ns  (%s)%n", name, serializeNanos, deserializeNanos,
+            ((List<?>) sink).size() == USER_COUNT ? "ok" : "error");
+    }
+
+    private static void measureRedis(RedisConnection connection, String name, RedisSerializer<Object> serializer, byte[] bytes) {
+        byte[] key = key(name);
+        connection.stringCommands().set(key, bytes);
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            serializer.deserialize(connection.stringCommands().get(key));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REDIS_ROUNDS; i++) {
+            serializer.deserialize(connection.stringCommands().get(key));
+        }
+        long costNanos = (System.nanoTime() - start) / REDIS_ROUNDS;
+        double megabytesPerSecond = bytes.length / (costNanos / 1e9) / (1024 * 1024);
+        System.out.printf("%-10s Redis GET+反序列化: %,10d ns  每次传输: %,8d 字节  单连接吞吐: %.1f MB/s%n",
+            name, costNanos, bytes.length, megabytesPerSecond);
+    }
+
+    private static byte[] key(String name) {
+        return ("bench:compression:" + name).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static List<BenchUser> buildUsers() {
+        Random random = new Random(42);
+        List<BenchUser> users = new ArrayList<>(USER_COUNT);
+        for (int i = 0; i < USER_COUNT; i++) {
+            BenchUser user = new BenchUser();
+            user.setUsername("user" + i);
+            user.setPassword(randomCipher(random, 32));
+            user.setEmail("user" + i + "@example.com");
+            user.setPhone("138" + String.format("%08d", i));
+            user.setIdentityCard(randomCipher(random, 48));
+            users.add(user);
+        }
+        return users;
+    }
+
+    /**
+     * 生成与 AESUtil 加密结果格式一致的 IV:密文 字符串
+     */
+    private static String randomCipher(Random random, int length) {
+        byte[] iv = new byte[12];
+        byte[] cipher = new byte[length];
+        random.nextBytes(iv);
+        random.nextBytes(cipher);
+        return Base64.getEncoder().encodeToString(iv) + ":" + Base64.getEncoder().encodeToString(cipher);
+    }
+}